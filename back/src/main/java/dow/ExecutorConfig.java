@@ -0,0 +1,59 @@
+package dow;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableScheduling
+public class ExecutorConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService spriteWorkerPool(@Value("${sprite.workers:0}") int workers) {
+        int size = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        return Executors.newFixedThreadPool(size, Thread.ofPlatform().name("sprite-worker-", 0).daemon(true).factory());
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService spriteImportJobPool(@Value("${sprite.import.jobs.workers:1}") int workers,
+                                               @Value("${sprite.import.jobs.queue-capacity:8}") int queueCapacity) {
+        return new ThreadPoolExecutor(
+                workers,
+                workers,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("sprite-import-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    /**
+     * Hachage des mots de passe (BCrypt) hors des threads Tomcat, limité à une part des cœurs : une vague
+     * de connexions ne peut pas affamer le reste du serveur. File pleine : rejet immédiat (503).
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService passwordHashingPool(@Value("${security.password.workers:0}") int workers,
+                                               @Value("${security.password.cpu-share:0.25}") double cpuShare,
+                                               @Value("${security.password.queue-capacity:64}") int queueCapacity) {
+        int size = workers > 0
+                ? workers
+                : Math.max(1, (int) (Runtime.getRuntime().availableProcessors() * cpuShare));
+        return new ThreadPoolExecutor(
+                size,
+                size,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-hash-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+}
@@ -1,7 +1,10 @@
 package dow.controller;
 
+import dow.model.dto.MatchEngineStats;
 import dow.model.dto.PlayerRolesDto;
 import dow.model.dto.RoleDto;
+import dow.model.dto.StompSessionStats;
+import dow.model.dto.TokenCacheStats;
 import dow.service.AdminService;
 import dow.service.RoleService;
 import org.springframework.http.ResponseEntity;
@@ -54,6 +57,21 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getAllPlayers());
     }
 
+    @GetMapping("/auth-cache")
+    public ResponseEntity<TokenCacheStats> getTokenCacheStats() {
+        return ResponseEntity.ok(adminService.getTokenCacheStats());
+    }
+
+    @GetMapping("/stomp-sessions")
+    public ResponseEntity<StompSessionStats> getStompSessionStats() {
+        return ResponseEntity.ok(adminService.getStompSessionStats());
+    }
+
+    @GetMapping("/match-engine")
+    public ResponseEntity<MatchEngineStats> getMatchEngineStats() {
+        return ResponseEntity.ok(adminService.getMatchEngineStats());
+    }
+
     @PutMapping("/players/{id}/roles")
     public ResponseEntity<PlayerRolesDto> updatePlayerRoles(
             @PathVariable Long id,
@@ -9,6 +9,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
@@ -28,4 +30,14 @@ public class AuthController {
     public LoginResponseDto login(@RequestBody ConnexionDto connexionDto) {
         return authService.login(connexionDto);
     }
+
+    @PostMapping("/refresh")
+    public LoginResponseDto refresh(@RequestBody Map<String, String> data) {
+        return authService.refresh(data.get("refreshToken"));
+    }
+
+    @PostMapping("/logout")
+    public void logout(@RequestBody Map<String, String> data) {
+        authService.logout(data.get("token"), data.get("refreshToken"));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package dow.controller;
+
+import dow.game.MatchEngine;
+import dow.model.CustomUserDetails;
+import dow.model.dto.MatchDto;
+import dow.model.dto.MatchInput;
+import dow.service.UtilsService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/matches")
+public class MatchController {
+
+    private final MatchEngine matchEngine;
+    private final UtilsService utilsService;
+
+    public MatchController(MatchEngine matchEngine, UtilsService utilsService) {
+        this.matchEngine = matchEngine;
+        this.utilsService = utilsService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<MatchDto>> getAll() {
+        return ResponseEntity.ok(matchEngine.findAll());
+    }
+
+    @PostMapping
+    public ResponseEntity<MatchDto> create(@RequestBody(required = false) Map<String, Integer> data) {
+        Integer tickRate = data != null ? data.get("tickRate") : null;
+        return ResponseEntity.ok(matchEngine.create(utilsService.getCurrentPlayer().getId(), tickRate));
+    }
+
+    @PostMapping("/{id}/join")
+    public ResponseEntity<MatchDto> join(@PathVariable Long id, @RequestBody Map<String, String> data) {
+        return ResponseEntity.ok(matchEngine.join(id, utilsService.getCurrentPlayer().getId(), data.get("sprite")));
+    }
+
+    @PostMapping("/{id}/leave")
+    public ResponseEntity<Void> leave(@PathVariable Long id) {
+        matchEngine.leave(id, utilsService.getCurrentPlayer().getId());
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> stop(@PathVariable Long id) {
+        matchEngine.stop(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Entrées de jeu par STOMP : le joueur est celui authentifié au CONNECT de la session.
+     */
+    @MessageMapping("/match/{id}/input")
+    public void input(@DestinationVariable long id, @Payload MatchInput input, Principal principal) {
+        if (principal instanceof UsernamePasswordAuthenticationToken auth
+                && auth.getPrincipal() instanceof CustomUserDetails details) {
+            matchEngine.input(id, details.getPlayer().getId(), input.getDx(), input.getDy(), input.isAttack());
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package dow.controller;
 
+import dow.model.ChatRoom;
 import dow.model.PageResponse;
+import dow.model.SliceResponse;
 import dow.model.dto.MessageDto;
 import dow.service.MessageService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @RestController
@@ -19,11 +23,20 @@ public class MessageController {
 
     @PostMapping()
     public void sendMessage(@RequestBody Map<String, String> data) {
-        messageService.sendMessage(data.get("message"));
+        messageService.sendMessage(data.get("message"), data.get("room"));
     }
 
     @GetMapping("/{page}/{size}")
     public PageResponse<MessageDto> getMessages(@PathVariable int page, @PathVariable int size) {
         return new PageResponse<>(messageService.getMessages(page, size));
     }
-}
\ No newline at end of file
+
+    @GetMapping
+    public SliceResponse<MessageDto> getMessagesBefore(
+            @RequestParam(defaultValue = ChatRoom.GLOBAL_ID) String room,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(defaultValue = "20") int size) {
+        return new SliceResponse<>(messageService.getMessagesBefore(room, before, beforeId, size));
+    }
+}
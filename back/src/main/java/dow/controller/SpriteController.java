@@ -2,11 +2,22 @@ package dow.controller;
 
 import dow.model.dto.HitboxDto;
 import dow.model.dto.ModifSpriteDto;
+import dow.model.dto.SpriteAtlasDto;
+import dow.model.dto.SpriteImportEvent;
+import dow.model.dto.SpriteImportResultDto;
 import dow.model.dto.SpriteInfos;
 import dow.model.entities.Animation;
+import dow.service.SpriteAtlasService;
+import dow.service.SpriteCatalogSnapshotService;
+import dow.service.SpriteFileService;
+import dow.service.SpriteImportJobService;
 import dow.service.SpriteService;
+import dow.service.SpriteVariantService;
 import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.core.io.Resource;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -21,10 +32,24 @@ import java.util.List;
 public class SpriteController {
 
     private final SpriteService spriteService;
-
-
-    public SpriteController(SpriteService spriteService) {
+    private final SpriteImportJobService spriteImportJobService;
+    private final SpriteAtlasService spriteAtlasService;
+    private final SpriteFileService spriteFileService;
+    private final SpriteVariantService spriteVariantService;
+    private final SpriteCatalogSnapshotService spriteCatalogSnapshotService;
+
+    public SpriteController(SpriteService spriteService,
+                            SpriteImportJobService spriteImportJobService,
+                            SpriteAtlasService spriteAtlasService,
+                            SpriteFileService spriteFileService,
+                            SpriteVariantService spriteVariantService,
+                            SpriteCatalogSnapshotService spriteCatalogSnapshotService) {
         this.spriteService = spriteService;
+        this.spriteImportJobService = spriteImportJobService;
+        this.spriteAtlasService = spriteAtlasService;
+        this.spriteFileService = spriteFileService;
+        this.spriteVariantService = spriteVariantService;
+        this.spriteCatalogSnapshotService = spriteCatalogSnapshotService;
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -33,6 +58,25 @@ public class SpriteController {
         return spriteService.processSpriteZip(zipFile);
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public List<SpriteImportResultDto> uploadSpriteBatch(@RequestParam("file") MultipartFile zipFile) {
+        return spriteService.importBatch(spriteService.readArchive(zipFile));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<SpriteImportEvent> submitImport(@RequestParam("file") MultipartFile zipFile) {
+        return ResponseEntity.accepted().body(spriteImportJobService.submit(zipFile));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<SpriteImportEvent> getImportJob(@PathVariable String jobId) {
+        SpriteImportEvent job = spriteImportJobService.getJob(jobId);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/all")
     public ResponseEntity<List<SpriteInfos>> findAllSpriteInfosByAnimationType() {
@@ -54,8 +98,33 @@ public class SpriteController {
     }
 
     @GetMapping("/sprite-storage/**")
-    public ResponseEntity<Resource> getSprite(HttpServletRequest request) throws IOException {
-        return spriteService.getSprite(request);
+    public void getSprite(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        spriteFileService.serve(request, response);
+    }
+
+    @GetMapping("/catalog")
+    public ResponseEntity<byte[]> getCatalog(
+            @RequestParam(required = false) Long since,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        SpriteCatalogSnapshotService.Payload payload = spriteCatalogSnapshotService.get(since, ifNoneMatch, gzip);
+        String etag = SpriteCatalogSnapshotService.etag(payload.version());
+
+        if (payload.body() == null) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header("X-Catalog-Delta", Boolean.toString(payload.delta()));
+        if (payload.gzip()) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(payload.body());
     }
 
     @GetMapping("/animations/{spriteName}")
@@ -69,11 +138,48 @@ public class SpriteController {
         return spriteService.normalizeSpriteSheet(animationId);
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/normalize/{spriteName}")
+    public List<SpriteInfos> normalizeSprite(@PathVariable String spriteName) {
+        return spriteService.normalizeSprite(spriteName);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/normalize")
+    public List<SpriteInfos> normalizeAll() {
+        return spriteService.normalizeAll();
+    }
+
+    @GetMapping("/atlas/{spriteName}")
+    public ResponseEntity<SpriteAtlasDto> getSpriteAtlas(@PathVariable String spriteName) {
+        SpriteAtlasDto atlas = spriteAtlasService.getSpriteAtlas(spriteName);
+        return atlas != null ? ResponseEntity.ok(atlas) : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/atlas/set/{setName}")
+    public ResponseEntity<SpriteAtlasDto> getSetAtlas(@PathVariable String setName) {
+        SpriteAtlasDto atlas = spriteAtlasService.getSetAtlas(setName);
+        return atlas != null ? ResponseEntity.ok(atlas) : ResponseEntity.notFound().build();
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping("/atlas/set/{setName}")
+    public ResponseEntity<SpriteAtlasDto> buildSetAtlas(@PathVariable String setName, @RequestBody List<String> spriteNames) {
+        SpriteAtlasDto atlas = spriteAtlasService.buildSetAtlas(setName, spriteNames);
+        return atlas != null ? ResponseEntity.ok(atlas) : ResponseEntity.notFound().build();
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/variants")
+    public ResponseEntity<Void> rebuildVariants() {
+        spriteVariantService.rebuildAll();
+        return ResponseEntity.accepted().build();
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/flip-horizontal/{animationId}")
-    public ResponseEntity<Void> flipHorizontal(@PathVariable Long animationId) {
-        spriteService.flipHorizontal(animationId);
-        return ResponseEntity.noContent().build();
+    public SpriteInfos flipHorizontal(@PathVariable Long animationId) {
+        return spriteService.flipHorizontal(animationId);
     }
 
     @PreAuthorize("hasRole('ADMIN')")
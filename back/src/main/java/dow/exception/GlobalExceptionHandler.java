@@ -8,6 +8,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -29,6 +30,14 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(body);
     }
 
+    @ExceptionHandler(JwtAuthenticationException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidToken() {
+        Map<String, String> body = new HashMap<>();
+        body.put("error", "INVALID_OR_EXPIRED_TOKEN");
+        body.put("message", "Session expirée, veuillez vous reconnecter.");
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(body);
+    }
+
     @ExceptionHandler(AlreadyExist.class)
     public ResponseEntity<Map<String, String>> handleSpriteNameAlreadyExist(AlreadyExist ex) {
         Map<String, String> body = new HashMap<>();
@@ -37,6 +46,14 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
     }
 
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Map<String, String>> handleRejectedExecution() {
+        Map<String, String> body = new HashMap<>();
+        body.put("error", "SERVICE_BUSY");
+        body.put("message", "Serveur occupé, réessayez dans quelques instants.");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(body);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, String>> handleAllExceptions() {
         Map<String, String> body = new HashMap<>();
@@ -0,0 +1,391 @@
+package dow.game;
+
+import dow.model.enumeration.AnimationType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Une partie et sa boucle à pas fixe. L'état des unités est dans des tableaux primitifs indexés par slot,
+ * modifiés uniquement par le thread qui exécute le tick ; les autres threads passent par les entrées
+ * (tableaux atomiques, la dernière direction l'emporte, une attaque reste en attente jusqu'au tick suivant)
+ * ou par la file de commandes (arrivée et départ des joueurs). Un tick n'alloue rien hors de cette file.
+ * <p>
+ * État publié à chaque tick où la partie a au moins une unité (big-endian, encodé en base64) :
+ * <pre>
+ * tick (long), nombre d'unités (u16), puis par unité : joueur (long), x (float), y (float),
+ * orientation (i8, 1 ou -1), animation (u8, ordinal d'AnimationType), frame (u16), points de vie (u16)
+ * </pre>
+ */
+final class Match implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(Match.class);
+
+    static final int IDLE = AnimationType.IDLE.ordinal();
+    static final int WALK = AnimationType.WALK.ordinal();
+    static final int ATTACK = AnimationType.ATTACK.ordinal();
+    private static final int ANIMATIONS = AnimationType.values().length;
+    private static final int UNIT_BYTES = 8 + 4 + 4 + 1 + 1 + 2 + 2;
+
+    interface Listener {
+        /**
+         * Appelé sur le thread du tick. state est l'état encodé en base64, null quand la partie n'a aucune
+         * unité ; le tableau est réutilisé quelques ticks plus tard (voir StateEncoder).
+         */
+        void onTick(Match match, byte[] state, long tickNanos);
+    }
+
+    private final long id;
+    private final long ownerId;
+    private final int tickRate;
+    private final MatchSettings settings;
+    private final Listener listener;
+    private final float dt;
+    private final float frameStepMs;
+
+    // réservations, côté threads appelants, sous le verrou de la partie
+    private final boolean[] reserved;
+    private final Map<Long, Integer> slotByPlayer = new ConcurrentHashMap<>();
+    private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+
+    // entrées, écrites par les threads STOMP
+    private final AtomicIntegerArray moves;
+    private final AtomicIntegerArray attacks;
+
+    // état des unités, thread du tick uniquement
+    private final boolean[] active;
+    private final long[] playerIds;
+    private final float[] x;
+    private final float[] y;
+    private final byte[] facing;
+    private final int[] hp;
+    private final int[] animation;
+    private final int[] frame;
+    private final float[] frameElapsedMs;
+    private final int[] frames;
+    private final int[] frameRates;
+    private final float[] hitboxX;
+    private final float[] hitboxY;
+    private final float[] hitboxWidth;
+    private final float[] hitboxHeight;
+    private final ByteBuffer out;
+    private final StateEncoder encoder;
+    private int activeCount;
+    private long tick;
+
+    private long emptySince = System.nanoTime();
+    private boolean stopped;
+    private volatile ScheduledFuture<?> future;
+
+    Match(long id, long ownerId, int tickRate, MatchSettings settings, Listener listener) {
+        int capacity = settings.maxPlayers();
+        this.id = id;
+        this.ownerId = ownerId;
+        this.tickRate = tickRate;
+        this.settings = settings;
+        this.listener = listener;
+        this.dt = 1f / tickRate;
+        this.frameStepMs = 1000f / tickRate;
+
+        this.reserved = new boolean[capacity];
+        this.moves = new AtomicIntegerArray(capacity);
+        this.attacks = new AtomicIntegerArray(capacity);
+
+        this.active = new boolean[capacity];
+        this.playerIds = new long[capacity];
+        this.x = new float[capacity];
+        this.y = new float[capacity];
+        this.facing = new byte[capacity];
+        this.hp = new int[capacity];
+        this.animation = new int[capacity];
+        this.frame = new int[capacity];
+        this.frameElapsedMs = new float[capacity];
+        this.frames = new int[capacity * ANIMATIONS];
+        this.frameRates = new int[capacity * ANIMATIONS];
+        this.hitboxX = new float[capacity];
+        this.hitboxY = new float[capacity];
+        this.hitboxWidth = new float[capacity];
+        this.hitboxHeight = new float[capacity];
+        this.out = ByteBuffer.allocate(8 + 2 + capacity * UNIT_BYTES);
+        this.encoder = new StateEncoder(capacity);
+    }
+
+    long id() {
+        return id;
+    }
+
+    long ownerId() {
+        return ownerId;
+    }
+
+    int tickRate() {
+        return tickRate;
+    }
+
+    long periodNanos() {
+        return 1_000_000_000L / tickRate;
+    }
+
+    int players() {
+        return slotByPlayer.size();
+    }
+
+    void start(ScheduledFuture<?> future) {
+        this.future = future;
+    }
+
+    synchronized boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Renvoie false si la partie était déjà arrêtée.
+     */
+    synchronized boolean stop() {
+        if (stopped) {
+            return false;
+        }
+        stopped = true;
+        ScheduledFuture<?> current = future;
+        if (current != null) {
+            current.cancel(false);
+        }
+        return true;
+    }
+
+    /**
+     * Arrête la partie si elle est vide depuis au moins graceNanos. Sous le même verrou que join : un
+     * joueur qui arrive pendant la vérification garde la partie, et aucun ne peut rejoindre une partie arrêtée.
+     */
+    synchronized boolean stopIfEmpty(long now, long graceNanos) {
+        if (!slotByPlayer.isEmpty() || now - emptySince < graceNanos) {
+            return false;
+        }
+        return stop();
+    }
+
+    /**
+     * Réserve un slot ; l'unité apparaît au tick suivant. Renvoie false si la partie est pleine ou arrêtée.
+     */
+    synchronized boolean join(long playerId, UnitSpec spec) {
+        if (stopped) {
+            return false;
+        }
+        if (slotByPlayer.containsKey(playerId)) {
+            return true;
+        }
+        for (int slot = 0; slot < reserved.length; slot++) {
+            if (!reserved[slot]) {
+                int free = slot;
+                reserved[free] = true;
+                slotByPlayer.put(playerId, free);
+                commands.add(() -> spawn(free, playerId, spec));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    synchronized boolean leave(long playerId) {
+        Integer slot = slotByPlayer.remove(playerId);
+        if (slot == null) {
+            return false;
+        }
+        reserved[slot] = false;
+        commands.add(() -> despawn(slot));
+        if (slotByPlayer.isEmpty()) {
+            emptySince = System.nanoTime();
+        }
+        return true;
+    }
+
+    /**
+     * dx et dy entre -127 et 127. Ignoré pour un joueur absent de la partie.
+     */
+    void input(long playerId, int dx, int dy, boolean attack) {
+        Integer slot = slotByPlayer.get(playerId);
+        if (slot == null) {
+            return;
+        }
+        moves.set(slot, (clamp(dx) & 0xFF) << 8 | (clamp(dy) & 0xFF));
+        if (attack) {
+            attacks.set(slot, 1);
+        }
+    }
+
+    @Override
+    public void run() {
+        long start = System.nanoTime();
+        try {
+            Runnable command;
+            while ((command = commands.poll()) != null) {
+                command.run();
+            }
+            step();
+            byte[] state = null;
+            if (activeCount > 0) {
+                encode();
+                state = encoder.encode(out, activeCount);
+            }
+            listener.onTick(this, state, System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            // une exception annulerait la tâche planifiée
+            log.error("Tick {} de la partie {} en échec: {}", tick, id, e.getMessage(), e);
+        }
+        tick++;
+    }
+
+    private void spawn(int slot, long playerId, UnitSpec spec) {
+        active[slot] = true;
+        activeCount++;
+        playerIds[slot] = playerId;
+        x[slot] = settings.arenaWidth() * (slot + 1) / (active.length + 1);
+        y[slot] = settings.arenaHeight() / 2;
+        facing[slot] = 1;
+        hp[slot] = settings.maxHp();
+        animation[slot] = IDLE;
+        frame[slot] = 0;
+        frameElapsedMs[slot] = 0;
+        System.arraycopy(spec.frames(), 0, frames, slot * ANIMATIONS, ANIMATIONS);
+        System.arraycopy(spec.frameRates(), 0, frameRates, slot * ANIMATIONS, ANIMATIONS);
+        hitboxX[slot] = spec.hitboxX();
+        hitboxY[slot] = spec.hitboxY();
+        hitboxWidth[slot] = spec.hitboxWidth();
+        hitboxHeight[slot] = spec.hitboxHeight();
+        moves.set(slot, 0);
+        attacks.set(slot, 0);
+    }
+
+    private void despawn(int slot) {
+        if (active[slot]) {
+            active[slot] = false;
+            activeCount--;
+        }
+    }
+
+    private void step() {
+        for (int i = 0; i < active.length; i++) {
+            if (!active[i]) {
+                continue;
+            }
+
+            int move = moves.get(i);
+            boolean attack = attacks.getAndSet(i, 0) != 0;
+
+            if (hp[i] <= 0) {
+                setAnimation(i, IDLE);
+            } else if (animation[i] != ATTACK) {
+                float dx = (byte) (move >> 8) / 127f;
+                float dy = (byte) move / 127f;
+
+                if (attack && frames[i * ANIMATIONS + ATTACK] > 0) {
+                    setAnimation(i, ATTACK);
+                    strike(i);
+                } else if (dx != 0 || dy != 0) {
+                    float length = (float) Math.sqrt(dx * dx + dy * dy);
+                    float scale = settings.speed() * dt / Math.max(1f, length);
+                    x[i] = Math.clamp(x[i] + dx * scale, 0f, settings.arenaWidth());
+                    y[i] = Math.clamp(y[i] + dy * scale, 0f, settings.arenaHeight());
+                    if (dx != 0) {
+                        facing[i] = (byte) (dx > 0 ? 1 : -1);
+                    }
+                    setAnimation(i, frames[i * ANIMATIONS + WALK] > 0 ? WALK : IDLE);
+                } else {
+                    setAnimation(i, IDLE);
+                }
+            }
+
+            advanceFrame(i);
+        }
+    }
+
+    private void setAnimation(int i, int type) {
+        if (animation[i] != type) {
+            animation[i] = type;
+            frame[i] = 0;
+            frameElapsedMs[i] = 0;
+        }
+    }
+
+    /**
+     * Avance l'animation selon son frameRate ; une attaque revient à IDLE à sa dernière frame, ce qui
+     * fait de sa durée le temps de recharge.
+     */
+    private void advanceFrame(int i) {
+        int index = i * ANIMATIONS + animation[i];
+        int rate = frameRates[index];
+        int count = frames[index];
+        if (rate <= 0 || count <= 0) {
+            return;
+        }
+
+        float frameMs = 1000f / rate;
+        frameElapsedMs[i] += frameStepMs;
+        while (frameElapsedMs[i] >= frameMs) {
+            frameElapsedMs[i] -= frameMs;
+            if (++frame[i] >= count) {
+                if (animation[i] == ATTACK) {
+                    setAnimation(i, IDLE);
+                    return;
+                }
+                frame[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * Touche les unités dont la hitbox recoupe celle de l'attaquant décalée d'une largeur vers l'avant.
+     */
+    private void strike(int attacker) {
+        float left = left(attacker) + facing[attacker] * hitboxWidth[attacker];
+        float top = y[attacker] + hitboxY[attacker];
+        float right = left + hitboxWidth[attacker];
+        float bottom = top + hitboxHeight[attacker];
+
+        for (int j = 0; j < active.length; j++) {
+            if (j == attacker || !active[j] || hp[j] <= 0) {
+                continue;
+            }
+            float otherLeft = left(j);
+            float otherTop = y[j] + hitboxY[j];
+            if (left < otherLeft + hitboxWidth[j] && otherLeft < right
+                    && top < otherTop + hitboxHeight[j] && otherTop < bottom) {
+                hp[j] = Math.max(0, hp[j] - settings.damage());
+            }
+        }
+    }
+
+    private float left(int i) {
+        return facing[i] > 0 ? x[i] + hitboxX[i] : x[i] - hitboxX[i] - hitboxWidth[i];
+    }
+
+    private void encode() {
+        out.clear();
+        out.putLong(tick);
+        out.putShort((short) activeCount);
+        for (int i = 0; i < active.length; i++) {
+            if (!active[i]) {
+                continue;
+            }
+            out.putLong(playerIds[i]);
+            out.putFloat(x[i]);
+            out.putFloat(y[i]);
+            out.put(facing[i]);
+            out.put((byte) animation[i]);
+            out.putShort((short) frame[i]);
+            out.putShort((short) hp[i]);
+        }
+        out.flip();
+    }
+
+    private static int clamp(int value) {
+        return Math.clamp(value, -127, 127);
+    }
+}
@@ -0,0 +1,252 @@
+package dow.game;
+
+import dow.model.ChatRoom;
+import dow.model.dto.MatchDto;
+import dow.model.dto.MatchEngineStats;
+import dow.model.dto.SpriteInfos;
+import dow.model.enumeration.AnimationType;
+import dow.service.ChatRoomService;
+import dow.service.SpriteCatalogCache;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Moteur de parties, autoritaire : les clients envoient leurs entrées sur /app/match/{id}/input et
+ * reçoivent l'état calculé par le serveur sur /topic/match/{id}, à chaque tick. L'état binaire (voir Match)
+ * part encodé en base64 dans une trame texte : SockJS ne transporte que du texte et corromprait des octets bruts.
+ * Une partie sans unité ne publie rien.
+ * <p>
+ * Chaque partie est une tâche à cadence fixe (game.tick-rate, entre 20 et 60 Hz) sur un pool d'un thread
+ * par cœur : une tâche n'est jamais exécutée en parallèle d'elle-même, et un pool partagé tient plusieurs
+ * centaines de parties là où un thread par partie ne passerait pas. Ce pool appartient au moteur et n'est
+ * pas un bean, pour ne pas prendre la place du planificateur des @Scheduled.
+ * <p>
+ * Un joueur ne crée que game.max-matches-per-player parties à la fois, et une partie restée vide pendant
+ * game.empty-grace-ms est arrêtée par un balayage périodique.
+ */
+@Service
+public class MatchEngine implements Match.Listener {
+
+    private static final Logger log = LoggerFactory.getLogger(MatchEngine.class);
+    private static final int MIN_TICK_RATE = 20;
+    private static final int MAX_TICK_RATE = 60;
+    public static final String TOPIC_PREFIX = "/topic/match/";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SpriteCatalogCache spriteCatalogCache;
+    private final ChatRoomService chatRoomService;
+    private final ScheduledThreadPoolExecutor matchTickPool;
+    private final MatchSettings settings;
+    private final int defaultTickRate;
+    private final int maxMatches;
+    private final int maxMatchesPerPlayer;
+    private final long emptyGraceNanos;
+    private final Map<Long, Match> matches = new ConcurrentHashMap<>();
+    private final Map<Long, String> topics = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder tickNanos = new LongAdder();
+    private final LongAdder overruns = new LongAdder();
+    private final AtomicLong maxTickNanos = new AtomicLong();
+
+    public MatchEngine(SimpMessagingTemplate messagingTemplate,
+                       SpriteCatalogCache spriteCatalogCache,
+                       ChatRoomService chatRoomService,
+                       @Value("${game.tick-workers:0}") int workers,
+                       @Value("${game.tick-rate:30}") int defaultTickRate,
+                       @Value("${game.max-matches:500}") int maxMatches,
+                       @Value("${game.max-matches-per-player:1}") int maxMatchesPerPlayer,
+                       @Value("${game.empty-grace-ms:60000}") long emptyGraceMs,
+                       @Value("${game.match.max-players:16}") int maxPlayers,
+                       @Value("${game.arena.width:1920}") float arenaWidth,
+                       @Value("${game.arena.height:1080}") float arenaHeight,
+                       @Value("${game.unit.speed:240}") float speed,
+                       @Value("${game.unit.hp:100}") int maxHp,
+                       @Value("${game.unit.damage:10}") int damage) {
+        this.messagingTemplate = messagingTemplate;
+        this.spriteCatalogCache = spriteCatalogCache;
+        this.chatRoomService = chatRoomService;
+        this.defaultTickRate = Math.clamp(defaultTickRate, MIN_TICK_RATE, MAX_TICK_RATE);
+        this.maxMatches = maxMatches;
+        this.maxMatchesPerPlayer = maxMatchesPerPlayer;
+        this.emptyGraceNanos = TimeUnit.MILLISECONDS.toNanos(emptyGraceMs);
+        this.settings = new MatchSettings(maxPlayers, arenaWidth, arenaHeight, speed, maxHp, damage);
+
+        int size = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.matchTickPool = new ScheduledThreadPoolExecutor(
+                size, Thread.ofPlatform().name("match-tick-", 0).daemon(true).factory());
+        this.matchTickPool.setRemoveOnCancelPolicy(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        matchTickPool.shutdownNow();
+    }
+
+    /**
+     * Synchronisé pour que les deux limites ne soient pas dépassées par des créations concurrentes.
+     */
+    public synchronized MatchDto create(long ownerId, Integer tickRate) {
+        if (matches.size() >= maxMatches) {
+            throw new RejectedExecutionException("Nombre maximal de parties atteint");
+        }
+        long owned = matches.values().stream().filter(existing -> existing.ownerId() == ownerId).count();
+        if (owned >= maxMatchesPerPlayer) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Nombre maximal de parties par joueur atteint");
+        }
+
+        int rate = tickRate != null ? Math.clamp(tickRate, MIN_TICK_RATE, MAX_TICK_RATE) : defaultTickRate;
+        Match match = new Match(nextId.incrementAndGet(), ownerId, rate, settings, this);
+        matches.put(match.id(), match);
+        topics.put(match.id(), TOPIC_PREFIX + match.id());
+        match.start(matchTickPool.scheduleAtFixedRate(match, 0, match.periodNanos(), TimeUnit.NANOSECONDS));
+
+        log.info("Partie {} créée ({} Hz)", match.id(), rate);
+        return toDto(match);
+    }
+
+    public List<MatchDto> findAll() {
+        return matches.values().stream()
+                .sorted(Comparator.comparingLong(Match::id))
+                .map(this::toDto)
+                .toList();
+    }
+
+    /**
+     * Le joueur entre dans la partie avec le sprite choisi (animations IDLE, WALK et ATTACK du catalogue,
+     * IDLE obligatoire) et rejoint le salon de chat de la partie.
+     */
+    public MatchDto join(long matchId, long playerId, String spriteName) {
+        Match match = find(matchId);
+
+        SpriteInfos idle = spriteCatalogCache.findByTypeAndName(AnimationType.IDLE, spriteName);
+        if (idle == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Sprite sans animation IDLE: " + spriteName);
+        }
+        UnitSpec spec = UnitSpec.of(
+                idle,
+                spriteCatalogCache.findByTypeAndName(AnimationType.WALK, spriteName),
+                spriteCatalogCache.findByTypeAndName(AnimationType.ATTACK, spriteName));
+
+        if (!match.join(playerId, spec)) {
+            if (match.isStopped()) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Partie introuvable");
+            }
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Partie complète");
+        }
+        chatRoomService.addMember(ChatRoom.match(matchId), playerId);
+        return toDto(match);
+    }
+
+    /**
+     * Une partie vidée par ce départ est arrêtée par sweepEmptyMatches une fois le délai de grâce écoulé.
+     */
+    public void leave(long matchId, long playerId) {
+        Match match = find(matchId);
+        if (match.leave(playerId)) {
+            chatRoomService.removeMember(ChatRoom.match(matchId), playerId);
+        }
+    }
+
+    public void stop(long matchId) {
+        Match match = matches.get(matchId);
+        if (match != null && match.stop()) {
+            discard(match);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${game.empty-sweep-ms:5000}")
+    public void sweepEmptyMatches() {
+        long now = System.nanoTime();
+        for (Match match : matches.values()) {
+            if (match.stopIfEmpty(now, emptyGraceNanos)) {
+                discard(match);
+            }
+        }
+    }
+
+    /**
+     * Chemin des entrées STOMP : aucune exception, une entrée pour une partie inconnue est ignorée.
+     */
+    public void input(long matchId, long playerId, int dx, int dy, boolean attack) {
+        Match match = matches.get(matchId);
+        if (match != null) {
+            match.input(playerId, dx, dy, attack);
+        }
+    }
+
+    @Override
+    public void onTick(Match match, byte[] state, long tickDuration) {
+        ticks.increment();
+        tickNanos.add(tickDuration);
+        if (tickDuration > match.periodNanos()) {
+            overruns.increment();
+        }
+        maxTickNanos.accumulateAndGet(tickDuration, Math::max);
+
+        String topic = state != null ? topics.get(match.id()) : null;
+        if (topic != null) {
+            // envoi direct, sans conversion : seule l'enveloppe du message est allouée
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            accessor.setContentType(MimeTypeUtils.TEXT_PLAIN);
+            accessor.setLeaveMutable(true);
+            messagingTemplate.send(topic, MessageBuilder.createMessage(state, accessor.getMessageHeaders()));
+        }
+    }
+
+    /**
+     * Durée maximale d'un tick depuis la lecture précédente des statistiques.
+     */
+    public MatchEngineStats stats() {
+        long count = ticks.sum();
+        long average = count > 0 ? tickNanos.sum() / count / 1000 : 0;
+        return new MatchEngineStats(
+                matches.size(),
+                matches.values().stream().mapToInt(Match::players).sum(),
+                count,
+                average,
+                maxTickNanos.getAndSet(0) / 1000,
+                overruns.sum());
+    }
+
+    private void discard(Match match) {
+        matches.remove(match.id(), match);
+        topics.remove(match.id());
+        chatRoomService.closeRoom(ChatRoom.match(match.id()));
+        log.info("Partie {} arrêtée", match.id());
+    }
+
+    private Match find(long matchId) {
+        Match match = matches.get(matchId);
+        if (match == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Partie introuvable");
+        }
+        return match;
+    }
+
+    private MatchDto toDto(Match match) {
+        return new MatchDto(match.id(), match.tickRate(), match.players(), settings.maxPlayers());
+    }
+}
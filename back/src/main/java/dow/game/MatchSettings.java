@@ -0,0 +1,7 @@
+package dow.game;
+
+/**
+ * Règles communes à toutes les parties d'un nœud (propriétés game.*).
+ */
+record MatchSettings(int maxPlayers, float arenaWidth, float arenaHeight, float speed, int maxHp, int damage) {
+}
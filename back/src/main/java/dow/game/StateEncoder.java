@@ -0,0 +1,44 @@
+package dow.game;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Encodage base64 de l'état d'une partie, sans allocation une fois chaque taille rencontrée : la taille de
+ * l'état ne dépend que du nombre d'unités, d'où un tableau par nombre d'unités. Le tableau encodé part sur
+ * le canal sortant STOMP, traité de façon asynchrone : il ne doit pas être réécrit au tick suivant, d'où
+ * un anneau de RING jeux de tableaux.
+ */
+final class StateEncoder {
+
+    private static final int RING = 4;
+
+    private final byte[][] raw;
+    private final byte[][][] encoded;
+    private int next;
+
+    StateEncoder(int maxUnits) {
+        this.raw = new byte[maxUnits + 1][];
+        this.encoded = new byte[RING][maxUnits + 1][];
+    }
+
+    /**
+     * Thread du tick uniquement ; le résultat reste valide pendant RING - 1 ticks.
+     */
+    byte[] encode(ByteBuffer state, int units) {
+        byte[] source = raw[units];
+        if (source == null || source.length != state.remaining()) {
+            source = raw[units] = new byte[state.remaining()];
+        }
+        state.get(source);
+
+        byte[][] slot = encoded[next];
+        next = (next + 1) % RING;
+        byte[] target = slot[units];
+        if (target == null) {
+            target = slot[units] = new byte[4 * ((source.length + 2) / 3)];
+        }
+        Base64.getEncoder().encode(source, target);
+        return target;
+    }
+}
@@ -0,0 +1,39 @@
+package dow.game;
+
+import dow.model.dto.SpriteInfos;
+
+/**
+ * Données d'animation d'une unité, résolues depuis le catalogue avant d'entrer dans la boucle de jeu.
+ * Tableaux indexés par ordinal d'AnimationType ; 0 frame quand l'animation n'existe pas. La hitbox est
+ * relative au centre de l'unité et mise à l'échelle.
+ */
+record UnitSpec(int[] frames, int[] frameRates, float hitboxX, float hitboxY, float hitboxWidth, float hitboxHeight) {
+
+    static UnitSpec of(SpriteInfos idle, SpriteInfos walk, SpriteInfos attack) {
+        SpriteInfos[] animations = {idle, walk, attack};
+        int[] frames = new int[animations.length];
+        int[] frameRates = new int[animations.length];
+        for (int i = 0; i < animations.length; i++) {
+            if (animations[i] != null) {
+                frames[i] = animations[i].getFrames();
+                frameRates[i] = animations[i].getFrameRate();
+            }
+        }
+
+        float scale = idle.getScale() > 0 ? idle.getScale() : 1f;
+        float frameWidth = (float) idle.getWidth() / Math.max(1, idle.getFrames());
+        float frameHeight = idle.getHeight();
+
+        if (idle.getHitboxX() == null || idle.getHitboxY() == null
+                || idle.getHitboxWidth() == null || idle.getHitboxHeight() == null) {
+            return new UnitSpec(frames, frameRates,
+                    -frameWidth * scale / 2, -frameHeight * scale / 2, frameWidth * scale, frameHeight * scale);
+        }
+
+        return new UnitSpec(frames, frameRates,
+                (idle.getHitboxX() - frameWidth / 2) * scale,
+                (idle.getHitboxY() - frameHeight / 2) * scale,
+                idle.getHitboxWidth() * scale,
+                idle.getHitboxHeight() * scale);
+    }
+}
@@ -0,0 +1,184 @@
+package dow.image;
+
+import java.awt.image.*;
+import java.util.Arrays;
+
+/**
+ * Canal alpha d'une image, extrait en une passe ligne par ligne directement depuis le DataBuffer.
+ */
+public final class AlphaMask {
+
+    private final int width;
+    private final int height;
+    private final byte[] alpha;
+
+    private AlphaMask(int width, int height, byte[] alpha) {
+        this.width = width;
+        this.height = height;
+        this.alpha = alpha;
+    }
+
+    public static AlphaMask of(BufferedImage image) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        byte[] alpha = new byte[w * h];
+        ColorModel cm = image.getColorModel();
+
+        if (!cm.hasAlpha()) {
+            Arrays.fill(alpha, (byte) 0xff);
+        } else if (!readPackedInt(image, alpha) && !readInterleavedByte(image, alpha) && !readIndexed(image, alpha)) {
+            readGeneric(image, alpha);
+        }
+
+        return new AlphaMask(w, h, alpha);
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public int alpha(int x, int y) {
+        return alpha[y * width + x] & 0xff;
+    }
+
+    /**
+     * Marque chaque colonne contenant au moins un pixel au-dessus du seuil et calcule
+     * les bornes du contenu dans le même parcours.
+     */
+    public ContentBounds scan(int threshold, boolean[] columns) {
+        int minX = width;
+        int maxX = -1;
+        int minY = -1;
+        int maxY = -1;
+
+        for (int y = 0; y < height; y++) {
+            int base = y * width;
+            boolean rowHasPixels = false;
+
+            for (int x = 0; x < width; x++) {
+                if ((alpha[base + x] & 0xff) > threshold) {
+                    columns[x] = true;
+                    rowHasPixels = true;
+                    if (x < minX) minX = x;
+                    if (x > maxX) maxX = x;
+                }
+            }
+
+            if (rowHasPixels) {
+                if (minY < 0) minY = y;
+                maxY = y;
+            }
+        }
+
+        return maxX < 0 ? null : new ContentBounds(minX, maxX, minY, maxY);
+    }
+
+    private static boolean readPackedInt(BufferedImage image, byte[] alpha) {
+        WritableRaster raster = image.getRaster();
+        if (!(raster.getDataBuffer() instanceof DataBufferInt buffer)
+                || !(raster.getSampleModel() instanceof SinglePixelPackedSampleModel sm)
+                || !(image.getColorModel() instanceof DirectColorModel cm)
+                || cm.getAlphaMask() != 0xff000000) {
+            return false;
+        }
+
+        int[] data = buffer.getData();
+        int w = image.getWidth();
+        int h = image.getHeight();
+        int tx = raster.getSampleModelTranslateX();
+        int ty = raster.getSampleModelTranslateY();
+        int stride = sm.getScanlineStride();
+
+        for (int y = 0; y < h; y++) {
+            int src = buffer.getOffset() + (y - ty) * stride - tx;
+            int dst = y * w;
+            for (int x = 0; x < w; x++) {
+                alpha[dst + x] = (byte) (data[src + x] >>> 24);
+            }
+        }
+        return true;
+    }
+
+    private static boolean readInterleavedByte(BufferedImage image, byte[] alpha) {
+        WritableRaster raster = image.getRaster();
+        if (!(raster.getDataBuffer() instanceof DataBufferByte buffer)
+                || !(raster.getSampleModel() instanceof ComponentSampleModel sm)
+                || !(image.getColorModel() instanceof ComponentColorModel cm)) {
+            return false;
+        }
+
+        int alphaBand = cm.getNumComponents() - 1;
+        if (cm.getComponentSize(alphaBand) != 8 || sm.getNumBands() != cm.getNumComponents()) {
+            return false;
+        }
+
+        int bank = sm.getBankIndices()[alphaBand];
+        byte[] data = buffer.getData(bank);
+        int w = image.getWidth();
+        int h = image.getHeight();
+        int tx = raster.getSampleModelTranslateX();
+        int ty = raster.getSampleModelTranslateY();
+        int stride = sm.getScanlineStride();
+        int pixelStride = sm.getPixelStride();
+        int bandOffset = buffer.getOffsets()[bank] + sm.getBandOffsets()[alphaBand];
+
+        for (int y = 0; y < h; y++) {
+            int src = bandOffset + (y - ty) * stride - tx * pixelStride;
+            int dst = y * w;
+            for (int x = 0; x < w; x++, src += pixelStride) {
+                alpha[dst + x] = data[src];
+            }
+        }
+        return true;
+    }
+
+    private static boolean readIndexed(BufferedImage image, byte[] alpha) {
+        if (!(image.getColorModel() instanceof IndexColorModel cm) || image.getRaster().getNumBands() != 1) {
+            return false;
+        }
+
+        byte[] palette = new byte[cm.getMapSize()];
+        cm.getAlphas(palette);
+
+        Raster raster = image.getRaster();
+        int w = image.getWidth();
+        int h = image.getHeight();
+        int[] row = new int[w];
+
+        for (int y = 0; y < h; y++) {
+            raster.getSamples(0, y, w, 1, 0, row);
+            int dst = y * w;
+            for (int x = 0; x < w; x++) {
+                alpha[dst + x] = palette[row[x]];
+            }
+        }
+        return true;
+    }
+
+    private static void readGeneric(BufferedImage image, byte[] alpha) {
+        WritableRaster raster = image.getAlphaRaster();
+        if (raster == null) {
+            Arrays.fill(alpha, (byte) 0xff);
+            return;
+        }
+
+        ColorModel cm = image.getColorModel();
+        int bits = cm.getComponentSize(cm.getNumComponents() - 1);
+        int max = (1 << bits) - 1;
+        int w = image.getWidth();
+        int h = image.getHeight();
+        int[] row = new int[w];
+
+        for (int y = 0; y < h; y++) {
+            raster.getSamples(raster.getMinX(), raster.getMinY() + y, w, 1, 0, row);
+            int dst = y * w;
+            for (int x = 0; x < w; x++) {
+                alpha[dst + x] = (byte) (row[x] * 255 / max);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package dow.image;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+
+/**
+ * Pixels ARGB contigus (stride = largeur). Partage le tableau de l'image quand elle est déjà en INT_ARGB.
+ */
+public record ArgbPixels(int[] data, int width, int height) {
+
+    public static ArgbPixels of(BufferedImage image) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+
+        if (isContiguousArgb(image)) {
+            return new ArgbPixels(((DataBufferInt) image.getRaster().getDataBuffer()).getData(), w, h);
+        }
+
+        BufferedImage copy = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = copy.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return new ArgbPixels(((DataBufferInt) copy.getRaster().getDataBuffer()).getData(), w, h);
+    }
+
+    public static ArgbPixels create(int width, int height) {
+        return new ArgbPixels(new int[width * height], width, height);
+    }
+
+    public BufferedImage toImage() {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        int[] target = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        System.arraycopy(data, 0, target, 0, data.length);
+        return image;
+    }
+
+    private static boolean isContiguousArgb(BufferedImage image) {
+        WritableRaster raster = image.getRaster();
+        return image.getType() == BufferedImage.TYPE_INT_ARGB
+                && raster.getDataBuffer() instanceof DataBufferInt buffer
+                && buffer.getOffset() == 0
+                && raster.getSampleModelTranslateX() == 0
+                && raster.getSampleModelTranslateY() == 0
+                && raster.getSampleModel() instanceof SinglePixelPackedSampleModel sm
+                && sm.getScanlineStride() == image.getWidth();
+    }
+}
@@ -0,0 +1,24 @@
+package dow.image;
+
+public record ContentBounds(int minX, int maxX, int minY, int maxY) {
+
+    public int width() {
+        return maxX - minX + 1;
+    }
+
+    public int height() {
+        return maxY - minY + 1;
+    }
+
+    public ContentBounds union(ContentBounds other) {
+        if (other == null) {
+            return this;
+        }
+        return new ContentBounds(
+                Math.min(minX, other.minX),
+                Math.max(maxX, other.maxX),
+                Math.min(minY, other.minY),
+                Math.max(maxY, other.maxY)
+        );
+    }
+}
@@ -0,0 +1,177 @@
+package dow.image;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Bin packing MaxRects (heuristique Best Short Side Fit, sans rotation). Les pages sont réduites à la plus
+ * petite puissance de deux qui contient leurs rectangles.
+ */
+public class MaxRectsPacker {
+
+    public record Item(int id, int width, int height) {
+    }
+
+    public record Placement(int id, int page, int x, int y, int width, int height) {
+    }
+
+    public record Page(int width, int height) {
+    }
+
+    public record Result(List<Placement> placements, List<Page> pages) {
+    }
+
+    private record Rect(int x, int y, int width, int height) {
+        boolean contains(Rect other) {
+            return other.x >= x && other.y >= y
+                    && other.x + other.width <= x + width
+                    && other.y + other.height <= y + height;
+        }
+
+        boolean intersects(Rect other) {
+            return other.x < x + width && other.x + other.width > x
+                    && other.y < y + height && other.y + other.height > y;
+        }
+    }
+
+    private final int maxSize;
+    private final int padding;
+
+    public MaxRectsPacker(int maxSize, int padding) {
+        this.maxSize = maxSize;
+        this.padding = padding;
+    }
+
+    public Result pack(List<Item> items) {
+        List<Item> sorted = new ArrayList<>(items);
+        sorted.sort(Comparator.comparingInt((Item i) -> Math.max(i.width(), i.height()))
+                .thenComparingInt(i -> i.width() * i.height())
+                .reversed());
+
+        List<Bin> bins = new ArrayList<>();
+        List<Placement> placements = new ArrayList<>();
+
+        for (Item item : sorted) {
+            int w = item.width() + padding;
+            int h = item.height() + padding;
+
+            Bin best = null;
+            Rect bestRect = null;
+            long bestScore = Long.MAX_VALUE;
+
+            for (Bin bin : bins) {
+                Rect candidate = bin.find(w, h);
+                if (candidate != null) {
+                    long score = bin.score(candidate, w, h);
+                    if (score < bestScore) {
+                        best = bin;
+                        bestRect = candidate;
+                        bestScore = score;
+                    }
+                }
+            }
+
+            if (best == null) {
+                best = new Bin(Math.max(maxSize, w), Math.max(maxSize, h));
+                bins.add(best);
+                bestRect = best.find(w, h);
+            }
+
+            Rect used = new Rect(bestRect.x, bestRect.y, w, h);
+            best.place(used, item.width(), item.height());
+            placements.add(new Placement(item.id(), bins.indexOf(best), used.x, used.y, item.width(), item.height()));
+        }
+
+        List<Page> pages = new ArrayList<>();
+        for (Bin bin : bins) {
+            pages.add(new Page(nextPowerOfTwo(bin.usedWidth), nextPowerOfTwo(bin.usedHeight)));
+        }
+
+        return new Result(placements, pages);
+    }
+
+    private static int nextPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    private static final class Bin {
+        private final List<Rect> free = new ArrayList<>();
+        private int usedWidth;
+        private int usedHeight;
+
+        Bin(int width, int height) {
+            free.add(new Rect(0, 0, width, height));
+        }
+
+        Rect find(int w, int h) {
+            Rect best = null;
+            long bestScore = Long.MAX_VALUE;
+
+            for (Rect r : free) {
+                if (r.width >= w && r.height >= h) {
+                    long score = score(r, w, h);
+                    if (score < bestScore) {
+                        best = r;
+                        bestScore = score;
+                    }
+                }
+            }
+
+            return best;
+        }
+
+        long score(Rect r, int w, int h) {
+            int shortSide = Math.min(r.width - w, r.height - h);
+            int longSide = Math.max(r.width - w, r.height - h);
+            return ((long) shortSide << 32) | longSide;
+        }
+
+        void place(Rect used, int contentWidth, int contentHeight) {
+            List<Rect> split = new ArrayList<>();
+
+            for (int i = free.size() - 1; i >= 0; i--) {
+                Rect r = free.get(i);
+                if (!r.intersects(used)) {
+                    continue;
+                }
+                free.remove(i);
+
+                if (used.x > r.x) {
+                    split.add(new Rect(r.x, r.y, used.x - r.x, r.height));
+                }
+                if (used.x + used.width < r.x + r.width) {
+                    split.add(new Rect(used.x + used.width, r.y, r.x + r.width - used.x - used.width, r.height));
+                }
+                if (used.y > r.y) {
+                    split.add(new Rect(r.x, r.y, r.width, used.y - r.y));
+                }
+                if (used.y + used.height < r.y + r.height) {
+                    split.add(new Rect(r.x, used.y + used.height, r.width, r.y + r.height - used.y - used.height));
+                }
+            }
+
+            free.addAll(split);
+            prune();
+
+            usedWidth = Math.max(usedWidth, used.x + contentWidth);
+            usedHeight = Math.max(usedHeight, used.y + contentHeight);
+        }
+
+        private void prune() {
+            for (int i = 0; i < free.size(); i++) {
+                for (int j = i + 1; j < free.size(); j++) {
+                    Rect a = free.get(i);
+                    Rect b = free.get(j);
+                    if (b.contains(a)) {
+                        free.remove(i--);
+                        break;
+                    }
+                    if (a.contains(b)) {
+                        free.remove(j--);
+                    }
+                }
+            }
+        }
+    }
+}
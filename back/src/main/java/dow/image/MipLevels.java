@@ -0,0 +1,74 @@
+package dow.image;
+
+/**
+ * Réduction par deux d'une feuille, frame par frame, pour que les frames réduites ne débordent pas les unes
+ * sur les autres. La moyenne se fait en alpha prémultiplié pour éviter les halos sombres sur les bords.
+ */
+public final class MipLevels {
+
+    private MipLevels() {
+    }
+
+    /**
+     * Niveau de mip le plus réduit dont l'échelle reste supérieure ou égale à celle du sprite
+     * (0.5 → 1, 0.3 → 1, 0.25 → 2), borné par maxLevel.
+     */
+    public static int levelFor(float scale, int maxLevel) {
+        if (scale <= 0 || scale >= 1) {
+            return 0;
+        }
+        int level = (int) Math.floor(Math.log(1 / scale) / Math.log(2) + 1e-6);
+        return Math.min(level, maxLevel);
+    }
+
+    public static ArgbPixels halve(ArgbPixels src, int frames) {
+        int fw = src.width() / frames;
+        int h = src.height();
+        int nfw = (fw + 1) / 2;
+        int nh = (h + 1) / 2;
+        ArgbPixels out = ArgbPixels.create(frames * nfw, nh);
+        int[] in = src.data();
+        int[] dst = out.data();
+
+        for (int f = 0; f < frames; f++) {
+            int x0 = f * fw;
+            for (int y = 0; y < nh; y++) {
+                int sy = y * 2;
+                int rows = sy + 1 < h ? 2 : 1;
+
+                for (int x = 0; x < nfw; x++) {
+                    int sx = x * 2;
+                    int cols = sx + 1 < fw ? 2 : 1;
+                    long a = 0;
+                    long r = 0;
+                    long g = 0;
+                    long b = 0;
+
+                    for (int dy = 0; dy < rows; dy++) {
+                        int row = (sy + dy) * src.width() + x0 + sx;
+                        for (int dx = 0; dx < cols; dx++) {
+                            int p = in[row + dx];
+                            int pa = p >>> 24;
+                            a += pa;
+                            r += ((p >> 16) & 0xff) * pa;
+                            g += ((p >> 8) & 0xff) * pa;
+                            b += (p & 0xff) * pa;
+                        }
+                    }
+
+                    int n = rows * cols;
+                    int value = 0;
+                    if (a > 0) {
+                        value = (int) ((a + n / 2) / n) << 24
+                                | (int) ((r + a / 2) / a) << 16
+                                | (int) ((g + a / 2) / a) << 8
+                                | (int) ((b + a / 2) / a);
+                    }
+                    dst[y * out.width() + f * nfw + x] = value;
+                }
+            }
+        }
+
+        return out;
+    }
+}
@@ -0,0 +1,474 @@
+package dow.image;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Encodeur PNG en mémoire : palette par median-cut (avec diffusion d'erreur Floyd–Steinberg optionnelle)
+ * et repli sur un PNG ARGB sans perte si la qualité obtenue reste sous le minimum configuré.
+ */
+@Component
+public class PngQuantizer {
+
+    private static final int MAX_COLORS = 256;
+    private static final int[] CANDIDATE_SIZES = {64, 128, 256};
+    private static final int TRANSPARENT = 0;
+
+    private final int qualityMin;
+    private final int qualityMax;
+    private final boolean dithering;
+
+    public PngQuantizer(@Value("${sprite.quantize.quality-min:60}") int qualityMin,
+                        @Value("${sprite.quantize.quality-max:80}") int qualityMax,
+                        @Value("${sprite.quantize.dithering:true}") boolean dithering) {
+        this.qualityMin = qualityMin;
+        this.qualityMax = qualityMax;
+        this.dithering = dithering;
+    }
+
+    public byte[] encode(BufferedImage image) throws IOException {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        int[] argb = ArgbPixels.of(image).data();
+
+        ColorIndex histogram = new ColorIndex(1024);
+        for (int p : argb) {
+            histogram.add(key(p), 1);
+        }
+
+        if (histogram.size() <= MAX_COLORS) {
+            int[] palette = histogram.keys();
+            ColorIndex exact = new ColorIndex(palette.length * 2);
+            for (int i = 0; i < palette.length; i++) {
+                exact.put(palette[i], i);
+            }
+            return write(toIndexed(argb, w, h, palette, exact, false));
+        }
+
+        Quantization best = quantize(histogram);
+        if (best == null || best.quality() < qualityMin) {
+            return write(image.getType() == BufferedImage.TYPE_INT_ARGB ? image : new ArgbPixels(argb, w, h).toImage());
+        }
+
+        return write(toIndexed(argb, w, h, best.palette(), best.mapping(), dithering));
+    }
+
+    private static int quality(double mse) {
+        if (mse <= 0) {
+            return 100;
+        }
+        double psnr = 10 * Math.log10(255.0 * 255.0 / mse);
+        return (int) Math.max(0, Math.min(100, Math.round((psnr - 20) * 4)));
+    }
+
+    private Quantization quantize(ColorIndex histogram) {
+        int[] colors = histogram.keys();
+        int[] counts = histogram.values();
+        boolean hasTransparent = histogram.get(TRANSPARENT) >= 0;
+
+        int opaqueCount = 0;
+        for (int i = 0; i < colors.length; i++) {
+            if (colors[i] != TRANSPARENT) {
+                colors[opaqueCount] = colors[i];
+                counts[opaqueCount] = counts[i];
+                opaqueCount++;
+            }
+        }
+
+        int reserved = hasTransparent ? 1 : 0;
+        List<Box> boxes = new ArrayList<>();
+        boxes.add(new Box(colors, counts, 0, opaqueCount));
+
+        Quantization result = null;
+        for (int size : CANDIDATE_SIZES) {
+            splitUntil(boxes, size - reserved, colors, counts);
+            result = evaluate(boxes, colors, counts, opaqueCount, hasTransparent);
+            if (result.quality() >= qualityMax) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private void splitUntil(List<Box> boxes, int target, int[] colors, int[] counts) {
+        while (boxes.size() < target) {
+            Box widest = null;
+            long bestScore = 0;
+            for (Box box : boxes) {
+                long score = box.score();
+                if (score > bestScore) {
+                    bestScore = score;
+                    widest = box;
+                }
+            }
+
+            if (widest == null) {
+                return;
+            }
+
+            boxes.remove(widest);
+            boxes.addAll(widest.split(colors, counts));
+        }
+    }
+
+    private Quantization evaluate(List<Box> boxes, int[] colors, int[] counts, int opaqueCount, boolean hasTransparent) {
+        int reserved = hasTransparent ? 1 : 0;
+        int[] palette = new int[boxes.size() + reserved];
+        for (int i = 0; i < boxes.size(); i++) {
+            palette[i + reserved] = boxes.get(i).average(colors, counts);
+        }
+
+        ColorIndex mapping = new ColorIndex(opaqueCount * 2 + 2);
+        if (hasTransparent) {
+            mapping.put(TRANSPARENT, 0);
+        }
+
+        double error = 0;
+        long pixels = 0;
+        for (int i = 0; i < opaqueCount; i++) {
+            int index = nearest(palette, colors[i], reserved);
+            mapping.put(colors[i], index);
+            error += (double) distance(colors[i], palette[index]) * counts[i];
+            pixels += counts[i];
+        }
+
+        double mse = pixels == 0 ? 0 : error / (pixels * 4.0);
+        return new Quantization(palette, mapping, quality(mse));
+    }
+
+    private BufferedImage toIndexed(int[] argb, int w, int h, int[] palette, ColorIndex mapping, boolean dither) {
+        int n = palette.length;
+        byte[] r = new byte[n];
+        byte[] g = new byte[n];
+        byte[] b = new byte[n];
+        byte[] a = new byte[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = (byte) (palette[i] >>> 24);
+            r[i] = (byte) (palette[i] >> 16);
+            g[i] = (byte) (palette[i] >> 8);
+            b[i] = (byte) palette[i];
+        }
+
+        int bits = n <= 2 ? 1 : n <= 4 ? 2 : n <= 16 ? 4 : 8;
+        IndexColorModel icm = new IndexColorModel(bits, n, r, g, b, a);
+        BufferedImage out = new BufferedImage(w, h, bits == 8 ? BufferedImage.TYPE_BYTE_INDEXED : BufferedImage.TYPE_BYTE_BINARY, icm);
+        WritableRaster raster = out.getRaster();
+
+        int firstOpaque = mapping.get(TRANSPARENT) >= 0 ? 1 : 0;
+        int[] row = new int[w];
+        float[] errCur = dither ? new float[(w + 2) * 4] : null;
+        float[] errNext = dither ? new float[(w + 2) * 4] : null;
+
+        for (int y = 0; y < h; y++) {
+            int base = y * w;
+            for (int x = 0; x < w; x++) {
+                int key = key(argb[base + x]);
+                if (!dither || key == TRANSPARENT) {
+                    row[x] = mapping.get(key);
+                    continue;
+                }
+
+                int e = (x + 1) * 4;
+                int ca = clamp(((key >>> 24)) + errCur[e]);
+                int cr = clamp(((key >> 16) & 0xff) + errCur[e + 1]);
+                int cg = clamp(((key >> 8) & 0xff) + errCur[e + 2]);
+                int cb = clamp((key & 0xff) + errCur[e + 3]);
+                int wanted = (ca << 24) | (cr << 16) | (cg << 8) | cb;
+
+                int index = mapping.get(wanted);
+                if (index < 0) {
+                    index = nearest(palette, wanted, firstOpaque);
+                    mapping.put(wanted, index);
+                }
+                row[x] = index;
+
+                int chosen = palette[index];
+                diffuse(errCur, errNext, e, ca - (chosen >>> 24), cr - ((chosen >> 16) & 0xff),
+                        cg - ((chosen >> 8) & 0xff), cb - (chosen & 0xff));
+            }
+
+            raster.setSamples(0, y, w, 1, 0, row);
+
+            if (dither) {
+                float[] swap = errCur;
+                errCur = errNext;
+                errNext = swap;
+                Arrays.fill(errNext, 0f);
+            }
+        }
+
+        return out;
+    }
+
+    private static void diffuse(float[] cur, float[] next, int e, int da, int dr, int dg, int db) {
+        diffuse(cur, next, e, da);
+        diffuse(cur, next, e + 1, dr);
+        diffuse(cur, next, e + 2, dg);
+        diffuse(cur, next, e + 3, db);
+    }
+
+    private static void diffuse(float[] cur, float[] next, int e, float d) {
+        cur[e + 4] += d * 7 / 16f;
+        next[e - 4] += d * 3 / 16f;
+        next[e] += d * 5 / 16f;
+        next[e + 4] += d / 16f;
+    }
+
+    private static int clamp(float v) {
+        return v < 0 ? 0 : v > 255 ? 255 : Math.round(v);
+    }
+
+    private static int nearest(int[] palette, int color, int from) {
+        int best = from;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int i = from; i < palette.length; i++) {
+            int d = distance(color, palette[i]);
+            if (d < bestDistance) {
+                bestDistance = d;
+                best = i;
+                if (d == 0) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    private static int distance(int c1, int c2) {
+        int da = (c1 >>> 24) - (c2 >>> 24);
+        int dr = ((c1 >> 16) & 0xff) - ((c2 >> 16) & 0xff);
+        int dg = ((c1 >> 8) & 0xff) - ((c2 >> 8) & 0xff);
+        int db = (c1 & 0xff) - (c2 & 0xff);
+        return da * da + dr * dr + dg * dg + db * db;
+    }
+
+    private static int key(int argb) {
+        return (argb >>> 24) == 0 ? TRANSPARENT : argb;
+    }
+
+    private static byte[] write(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        if (param.canWriteCompressed()) {
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(0f);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private record Quantization(int[] palette, ColorIndex mapping, int quality) {
+    }
+
+    private static final class Box {
+        private final int from;
+        private final int to;
+        private final long weight;
+        private final int channel;
+        private final int range;
+
+        Box(int[] colors, int[] counts, int from, int to) {
+            this.from = from;
+            this.to = to;
+
+            int[] min = {255, 255, 255, 255};
+            int[] max = {0, 0, 0, 0};
+            long w = 0;
+            for (int i = from; i < to; i++) {
+                for (int c = 0; c < 4; c++) {
+                    int v = channel(colors[i], c);
+                    if (v < min[c]) min[c] = v;
+                    if (v > max[c]) max[c] = v;
+                }
+                w += counts[i];
+            }
+
+            int widest = 0;
+            for (int c = 1; c < 4; c++) {
+                if (max[c] - min[c] > max[widest] - min[widest]) {
+                    widest = c;
+                }
+            }
+
+            this.weight = w;
+            this.channel = widest;
+            this.range = to > from ? max[widest] - min[widest] : 0;
+        }
+
+        long score() {
+            return to - from < 2 ? 0 : (long) range * weight;
+        }
+
+        List<Box> split(int[] colors, int[] counts) {
+            int n = to - from;
+            long[] order = new long[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = ((long) channel(colors[from + i], channel) << 32) | i;
+            }
+            Arrays.sort(order);
+
+            int[] sortedColors = new int[n];
+            int[] sortedCounts = new int[n];
+            for (int i = 0; i < n; i++) {
+                int src = from + (int) order[i];
+                sortedColors[i] = colors[src];
+                sortedCounts[i] = counts[src];
+            }
+            System.arraycopy(sortedColors, 0, colors, from, n);
+            System.arraycopy(sortedCounts, 0, counts, from, n);
+
+            long half = weight / 2;
+            long cumulative = 0;
+            int mid = to - 1;
+            for (int i = from; i < to - 1; i++) {
+                cumulative += counts[i];
+                if (cumulative >= half) {
+                    mid = i + 1;
+                    break;
+                }
+            }
+
+            return List.of(new Box(colors, counts, from, mid), new Box(colors, counts, mid, to));
+        }
+
+        int average(int[] colors, int[] counts) {
+            double sa = 0, sr = 0, sg = 0, sb = 0, wa = 0, wc = 0;
+            for (int i = from; i < to; i++) {
+                int a = colors[i] >>> 24;
+                double weightA = counts[i];
+                double weightC = (double) counts[i] * a;
+                sa += a * weightA;
+                sr += ((colors[i] >> 16) & 0xff) * weightC;
+                sg += ((colors[i] >> 8) & 0xff) * weightC;
+                sb += (colors[i] & 0xff) * weightC;
+                wa += weightA;
+                wc += weightC;
+            }
+
+            int a = (int) Math.round(sa / wa);
+            int r = wc == 0 ? 0 : (int) Math.round(sr / wc);
+            int g = wc == 0 ? 0 : (int) Math.round(sg / wc);
+            int b = wc == 0 ? 0 : (int) Math.round(sb / wc);
+            return (Math.max(1, a) << 24) | (r << 16) | (g << 8) | b;
+        }
+
+        private static int channel(int color, int channel) {
+            return (color >>> (24 - channel * 8)) & 0xff;
+        }
+    }
+
+    /**
+     * Table de hachage int → int à adressage ouvert, sans boxing.
+     */
+    private static final class ColorIndex {
+        private int[] keys;
+        private int[] values;
+        private boolean[] used;
+        private int size;
+
+        ColorIndex(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(16, expected * 2) - 1) << 1;
+            keys = new int[capacity];
+            values = new int[capacity];
+            used = new boolean[capacity];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int get(int key) {
+            int mask = keys.length - 1;
+            for (int i = mix(key) & mask; used[i]; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return -1;
+        }
+
+        void put(int key, int value) {
+            insert(key, value, false);
+        }
+
+        void add(int key, int delta) {
+            insert(key, delta, true);
+        }
+
+        private void insert(int key, int value, boolean accumulate) {
+            int mask = keys.length - 1;
+            int i = mix(key) & mask;
+            while (used[i]) {
+                if (keys[i] == key) {
+                    values[i] = accumulate ? values[i] + value : value;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            used[i] = true;
+            keys[i] = key;
+            values[i] = value;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            boolean[] oldUsed = used;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            used = new boolean[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        int[] keys() {
+            int[] out = new int[size];
+            int n = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (used[i]) out[n++] = keys[i];
+            }
+            return out;
+        }
+
+        int[] values() {
+            int[] out = new int[size];
+            int n = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (used[i]) out[n++] = values[i];
+            }
+            return out;
+        }
+
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
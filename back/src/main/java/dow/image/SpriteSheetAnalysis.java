@@ -0,0 +1,8 @@
+package dow.image;
+
+public record SpriteSheetAnalysis(int frames, int width, int height, ContentBounds contentBounds) {
+
+    public boolean isEmpty() {
+        return contentBounds == null;
+    }
+}
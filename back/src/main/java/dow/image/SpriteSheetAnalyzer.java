@@ -0,0 +1,102 @@
+package dow.image;
+
+import org.springframework.stereotype.Component;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class SpriteSheetAnalyzer {
+
+    public static final int ALPHA_THRESHOLD = 10;
+    private static final int MIN_ABSOLUTE_WIDTH = 5;
+    private static final double RESIDUAL_THRESHOLD = 0.3;
+    private static final double LARGE_BLOCK_FACTOR = 1.9;
+    private static final double STDDEV_MULTIPLIER = 2.0;
+
+    public SpriteSheetAnalysis analyze(BufferedImage img) {
+        AlphaMask mask = AlphaMask.of(img);
+        boolean[] columns = new boolean[mask.width()];
+        ContentBounds bounds = mask.scan(ALPHA_THRESHOLD, columns);
+
+        return new SpriteSheetAnalysis(detectFrames(columns), img.getWidth(), img.getHeight(), bounds);
+    }
+
+    private int detectFrames(boolean[] columns) {
+        List<Integer> widths = extractFrameWidths(columns);
+
+        if (widths.isEmpty()) {
+            return 1;
+        }
+
+        double avgWidth = calculateRobustAverageWidth(widths);
+        return Math.max(1, countFrames(widths, avgWidth));
+    }
+
+    private List<Integer> extractFrameWidths(boolean[] columns) {
+        List<Integer> widths = new ArrayList<>();
+        int current = 0;
+
+        for (boolean hasPixel : columns) {
+            if (hasPixel) {
+                current++;
+            } else if (current > 0) {
+                widths.add(current);
+                current = 0;
+            }
+        }
+
+        if (current > 0) {
+            widths.add(current);
+        }
+
+        return widths;
+    }
+
+    private double calculateRobustAverageWidth(List<Integer> widths) {
+        List<Integer> filtered = widths.stream()
+                .filter(w -> w >= MIN_ABSOLUTE_WIDTH)
+                .toList();
+
+        if (filtered.isEmpty()) {
+            return 0;
+        }
+
+        double mean = filtered.stream()
+                .mapToInt(i -> i)
+                .average()
+                .orElse(0);
+
+        double stdDev = Math.sqrt(
+                filtered.stream()
+                        .mapToDouble(i -> (i - mean) * (i - mean))
+                        .average()
+                        .orElse(0)
+        );
+
+        return filtered.stream()
+                .filter(w -> Math.abs(w - mean) <= STDDEV_MULTIPLIER * stdDev)
+                .mapToInt(i -> i)
+                .average()
+                .orElse(mean);
+    }
+
+    private int countFrames(List<Integer> widths, double avgWidth) {
+        int total = 0;
+
+        for (int w : widths) {
+            if (w < MIN_ABSOLUTE_WIDTH || w < avgWidth * RESIDUAL_THRESHOLD) {
+                continue;
+            }
+
+            if (w > avgWidth * LARGE_BLOCK_FACTOR) {
+                total += Math.max(1, (int) Math.floor(w / avgWidth));
+            } else {
+                total += 1;
+            }
+        }
+
+        return total;
+    }
+}
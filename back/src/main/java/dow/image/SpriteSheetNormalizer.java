@@ -0,0 +1,101 @@
+package dow.image;
+
+import org.springframework.stereotype.Component;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Recadre chaque frame d'une feuille sur les bornes communes du contenu, directement sur le tableau ARGB.
+ */
+@Component
+public class SpriteSheetNormalizer {
+
+    public BufferedImage normalize(BufferedImage original, int frameCount) {
+        ArgbPixels src = ArgbPixels.of(original);
+        int fw = src.width() / frameCount;
+        ContentBounds global = null;
+
+        for (int i = 0; i < frameCount; i++) {
+            ContentBounds frame = frameBounds(src, i * fw, fw, SpriteSheetAnalyzer.ALPHA_THRESHOLD);
+            if (frame != null) {
+                global = global == null ? frame : global.union(frame);
+            }
+        }
+
+        if (global == null) {
+            return original;
+        }
+
+        int newWidth = global.width();
+        int newHeight = global.height();
+        ArgbPixels out = ArgbPixels.create(frameCount * newWidth, newHeight);
+
+        for (int i = 0; i < frameCount; i++) {
+            int srcX = i * fw + global.minX();
+            int dstX = i * newWidth;
+            for (int y = 0; y < newHeight; y++) {
+                System.arraycopy(
+                        src.data(), (global.minY() + y) * src.width() + srcX,
+                        out.data(), y * out.width() + dstX,
+                        newWidth
+                );
+            }
+        }
+
+        return out.toImage();
+    }
+
+    /**
+     * Bornes du contenu d'une frame [x0, x0 + fw), relatives à la frame. Chaque bord est rogné vers
+     * l'intérieur et s'arrête au premier pixel visible.
+     */
+    public ContentBounds frameBounds(ArgbPixels pixels, int x0, int fw, int threshold) {
+        int[] data = pixels.data();
+        int stride = pixels.width();
+        int h = pixels.height();
+
+        int minY = 0;
+        while (minY < h && !rowHasContent(data, minY * stride + x0, fw, threshold)) {
+            minY++;
+        }
+        if (minY == h) {
+            return null;
+        }
+
+        int maxY = h - 1;
+        while (maxY > minY && !rowHasContent(data, maxY * stride + x0, fw, threshold)) {
+            maxY--;
+        }
+
+        int minX = fw;
+        int maxX = -1;
+        for (int y = minY; y <= maxY; y++) {
+            int row = y * stride + x0;
+
+            for (int x = 0; x < minX; x++) {
+                if ((data[row + x] >>> 24) > threshold) {
+                    minX = x;
+                    break;
+                }
+            }
+
+            for (int x = fw - 1; x > maxX; x--) {
+                if ((data[row + x] >>> 24) > threshold) {
+                    maxX = x;
+                    break;
+                }
+            }
+        }
+
+        return new ContentBounds(minX, maxX, minY, maxY);
+    }
+
+    private static boolean rowHasContent(int[] data, int from, int length, int threshold) {
+        for (int i = from, end = from + length; i < end; i++) {
+            if ((data[i] >>> 24) > threshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
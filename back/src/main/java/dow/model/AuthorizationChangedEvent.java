@@ -0,0 +1,16 @@
+package dow.model;
+
+/**
+ * Publié quand les droits d'un joueur changent (playerId renseigné) ou ceux de tous les joueurs d'un rôle
+ * (playerId null) : les jetons déjà émis ne doivent plus être crus sur parole pour leurs rôles.
+ */
+public record AuthorizationChangedEvent(Long playerId) {
+
+    public static AuthorizationChangedEvent player(Long playerId) {
+        return new AuthorizationChangedEvent(playerId);
+    }
+
+    public static AuthorizationChangedEvent all() {
+        return new AuthorizationChangedEvent(null);
+    }
+}
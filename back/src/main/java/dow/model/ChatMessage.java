@@ -0,0 +1,15 @@
+package dow.model;
+
+import dow.model.dto.MessageDto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Message de chat diffusé immédiatement puis persisté en différé par ChatMessageWriter.
+ */
+public record ChatMessage(long id, String roomId, Long playerId, String pseudo, String content, LocalDateTime timestamp) {
+
+    public MessageDto toDto() {
+        return new MessageDto(id, roomId, pseudo, content, timestamp);
+    }
+}
@@ -0,0 +1,90 @@
+package dow.model;
+
+import dow.model.enumeration.ChatRoomType;
+
+import java.util.regex.Pattern;
+
+/**
+ * Salon de chat identifié par une chaîne : "global", "match:&lt;id&gt;" ou
+ * "dm:&lt;idJoueur&gt;:&lt;idJoueur&gt;" (ids triés). Le salon global garde le topic historique /topic/chat,
+ * les autres ont /topic/chat/&lt;id&gt;.
+ */
+public record ChatRoom(ChatRoomType type, String id) {
+
+    public static final String GLOBAL_ID = "global";
+    public static final String TOPIC = "/topic/chat";
+    public static final ChatRoom GLOBAL = new ChatRoom(ChatRoomType.GLOBAL, GLOBAL_ID);
+
+    private static final Pattern KEY = Pattern.compile("[A-Za-z0-9_-]{1,40}");
+
+    public static ChatRoom parse(String id) {
+        if (id == null || id.isBlank() || id.equals(GLOBAL_ID)) {
+            return GLOBAL;
+        }
+
+        String[] parts = id.split(":", -1);
+        ChatRoomType type = switch (parts[0]) {
+            case "match" -> ChatRoomType.MATCH;
+            case "dm" -> ChatRoomType.DIRECT;
+            default -> throw new IllegalArgumentException("Salon inconnu: " + id);
+        };
+
+        if (type == ChatRoomType.DIRECT) {
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Salon privé invalide: " + id);
+            }
+            return direct(parseId(parts[1], id), parseId(parts[2], id));
+        }
+
+        if (parts.length != 2 || !KEY.matcher(parts[1]).matches()) {
+            throw new IllegalArgumentException("Salon invalide: " + id);
+        }
+        return new ChatRoom(type, id);
+    }
+
+    public static ChatRoom fromTopic(String destination) {
+        if (TOPIC.equals(destination)) {
+            return GLOBAL;
+        }
+        if (destination == null || !destination.startsWith(TOPIC + "/")) {
+            return null;
+        }
+        try {
+            ChatRoom room = parse(destination.substring(TOPIC.length() + 1));
+            return room.type() == ChatRoomType.GLOBAL ? null : room;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public static ChatRoom match(long matchId) {
+        return new ChatRoom(ChatRoomType.MATCH, "match:" + matchId);
+    }
+
+    public static ChatRoom direct(long playerA, long playerB) {
+        return new ChatRoom(ChatRoomType.DIRECT, "dm:" + Math.min(playerA, playerB) + ":" + Math.max(playerA, playerB));
+    }
+
+    public String topic() {
+        return type == ChatRoomType.GLOBAL ? TOPIC : TOPIC + "/" + id;
+    }
+
+    /**
+     * Pour un salon privé, indique si le joueur en est l'un des deux participants.
+     */
+    public boolean isParticipant(long playerId) {
+        if (type != ChatRoomType.DIRECT) {
+            return false;
+        }
+        String[] parts = id.split(":");
+        return Long.parseLong(parts[1]) == playerId || Long.parseLong(parts[2]) == playerId;
+    }
+
+    private static long parseId(String value, String room) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Salon privé invalide: " + room);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package dow.model;
+
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+/**
+ * Équivalent de PageResponse sans total : évite le COUNT(*) sur toute la table à chaque page.
+ */
+public class SliceResponse<T> {
+    private final List<T> content;
+    private final int size;
+    private final boolean hasNext;
+
+    public SliceResponse(Slice<T> slice) {
+        this.content = slice.getContent();
+        this.size = slice.getSize();
+        this.hasNext = slice.hasNext();
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+}
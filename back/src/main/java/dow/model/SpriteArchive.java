@@ -0,0 +1,131 @@
+package dow.model;
+
+import dow.model.enumeration.AnimationType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Contenu d'un ZIP de sprites lu en une seule passe : dossier racine → TYPE → feuilles PNG,
+ * numérotées dans l'ordre alphabétique des fichiers comme dans le stockage final.
+ */
+public class SpriteArchive {
+
+    private final Map<String, List<Sheet>> roots;
+
+    private SpriteArchive(Map<String, List<Sheet>> roots) {
+        this.roots = roots;
+    }
+
+    public static SpriteArchive read(InputStream in, Collection<AnimationType> types, long maxBytes) throws IOException {
+        Map<String, Map<AnimationType, SortedMap<String, byte[]>>> entries = new TreeMap<>();
+        long totalBytes = 0;
+
+        try (ZipInputStream zis = new ZipInputStream(in)) {
+            ZipEntry entry;
+
+            while ((entry = zis.getNextEntry()) != null) {
+                String[] segments = entry.getName().replace('\\', '/').split("/");
+
+                for (String segment : segments) {
+                    if (segment.equals("..")) {
+                        throw new IOException("ZIP invalide: " + entry.getName());
+                    }
+                }
+
+                if (segments.length < 2 || segments[0].isEmpty() || segments[0].startsWith("__")) {
+                    continue;
+                }
+
+                Map<AnimationType, SortedMap<String, byte[]>> byType =
+                        entries.computeIfAbsent(segments[0], k -> new EnumMap<>(AnimationType.class));
+
+                if (entry.isDirectory() || segments.length != 3) {
+                    continue;
+                }
+
+                AnimationType type = parseType(segments[1]);
+                String fileName = segments[2];
+                if (type == null || !types.contains(type) || !fileName.toLowerCase().endsWith(".png")) {
+                    continue;
+                }
+
+                byte[] data = readBounded(zis, maxBytes - totalBytes, maxBytes);
+                totalBytes += data.length;
+
+                byType.computeIfAbsent(type, k -> new TreeMap<>()).put(fileName, data);
+            }
+        }
+
+        Map<String, List<Sheet>> roots = new LinkedHashMap<>();
+        entries.forEach((root, byType) -> roots.put(root, toSheets(byType, types)));
+        return new SpriteArchive(roots);
+    }
+
+    /**
+     * Lit l'entrée courante par blocs et s'arrête dès que remaining est dépassé, sans jamais décompresser
+     * plus que le budget restant.
+     */
+    private static byte[] readBounded(ZipInputStream zis, long remaining, long maxBytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        long read = 0;
+        int n;
+
+        while ((n = zis.read(buffer)) != -1) {
+            read += n;
+            if (read > remaining) {
+                throw new IOException("ZIP trop volumineux une fois décompressé (> " + maxBytes + " octets)");
+            }
+            out.write(buffer, 0, n);
+        }
+
+        return out.toByteArray();
+    }
+
+    private static AnimationType parseType(String folder) {
+        try {
+            return AnimationType.valueOf(folder);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static List<Sheet> toSheets(Map<AnimationType, SortedMap<String, byte[]>> byType,
+                                        Collection<AnimationType> types) {
+        List<Sheet> sheets = new ArrayList<>();
+
+        for (AnimationType type : types) {
+            SortedMap<String, byte[]> files = byType.get(type);
+            if (files == null) {
+                continue;
+            }
+
+            int indice = 1;
+            for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                sheets.add(new Sheet(type, indice++, file.getKey(), file.getValue()));
+            }
+        }
+
+        return sheets;
+    }
+
+    public Set<String> getRootNames() {
+        return roots.keySet();
+    }
+
+    public List<Sheet> getSheets(String rootName) {
+        return roots.getOrDefault(rootName, List.of());
+    }
+
+    public record Sheet(AnimationType type, int indice, String fileName, byte[] data) {
+
+        public String storagePath() {
+            return type.name() + "/" + indice + ".png";
+        }
+    }
+}
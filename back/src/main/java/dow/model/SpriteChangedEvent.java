@@ -0,0 +1,31 @@
+package dow.model;
+
+import dow.model.enumeration.SpriteChangeType;
+
+/**
+ * Publié par SpriteService à chaque modification d'un sprite. animationId est null quand tout le sprite
+ * est concerné, previousName n'est renseigné que pour un renommage. sourceNode est null pour un changement
+ * local, sinon c'est l'identifiant du nœud qui l'a diffusé.
+ */
+public record SpriteChangedEvent(SpriteChangeType type,
+                                 String spriteName,
+                                 Long animationId,
+                                 String previousName,
+                                 String sourceNode) {
+
+    public static SpriteChangedEvent of(SpriteChangeType type, String spriteName) {
+        return new SpriteChangedEvent(type, spriteName, null, null, null);
+    }
+
+    public static SpriteChangedEvent of(SpriteChangeType type, String spriteName, Long animationId) {
+        return new SpriteChangedEvent(type, spriteName, animationId, null, null);
+    }
+
+    public static SpriteChangedEvent renamed(String previousName, String spriteName) {
+        return new SpriteChangedEvent(SpriteChangeType.RENAMED, spriteName, null, previousName, null);
+    }
+
+    public boolean isRemote() {
+        return sourceNode != null;
+    }
+}
@@ -0,0 +1,4 @@
+package dow.model.dto;
+
+public record AnimationVersion(Long animationId, String contentHash) {
+}
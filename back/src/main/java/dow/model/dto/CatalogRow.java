@@ -0,0 +1,19 @@
+package dow.model.dto;
+
+import dow.model.enumeration.AnimationType;
+
+public record CatalogRow(Long animationId,
+                         String spriteName,
+                         float scale,
+                         AnimationType type,
+                         int indice,
+                         int width,
+                         int height,
+                         int frames,
+                         int frameRate,
+                         Integer hitboxX,
+                         Integer hitboxY,
+                         Integer hitboxWidth,
+                         Integer hitboxHeight,
+                         String contentHash) {
+}
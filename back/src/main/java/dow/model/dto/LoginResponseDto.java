@@ -2,10 +2,12 @@ package dow.model.dto;
 
 public class LoginResponseDto {
     private String token;
+    private String refreshToken;
     private String pseudo;
 
-    public LoginResponseDto(String token, String pseudo) {
+    public LoginResponseDto(String token, String refreshToken, String pseudo) {
         this.token = token;
+        this.refreshToken = refreshToken;
         this.pseudo = pseudo;
     }
 
@@ -17,6 +19,14 @@ public class LoginResponseDto {
         this.token = token;
     }
 
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
     public String getPseudo() {
         return pseudo;
     }
@@ -0,0 +1,4 @@
+package dow.model.dto;
+
+public record MatchDto(long id, int tickRate, int players, int maxPlayers) {
+}
@@ -0,0 +1,9 @@
+package dow.model.dto;
+
+public record MatchEngineStats(int matches,
+                               int players,
+                               long ticks,
+                               long averageTickMicros,
+                               long maxTickMicros,
+                               long overruns) {
+}
@@ -0,0 +1,37 @@
+package dow.model.dto;
+
+/**
+ * Entrée d'un joueur : direction (dx, dy entre -127 et 127) et demande d'attaque.
+ */
+public class MatchInput {
+    private int dx;
+    private int dy;
+    private boolean attack;
+
+    public MatchInput() {
+    }
+
+    public int getDx() {
+        return dx;
+    }
+
+    public void setDx(int dx) {
+        this.dx = dx;
+    }
+
+    public int getDy() {
+        return dy;
+    }
+
+    public void setDy(int dy) {
+        this.dy = dy;
+    }
+
+    public boolean isAttack() {
+        return attack;
+    }
+
+    public void setAttack(boolean attack) {
+        this.attack = attack;
+    }
+}
@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 
 public class MessageDto {
     private Long id;
+    private String room;
     private String player;
     private String content;
     private LocalDateTime timestamp;
@@ -18,6 +19,11 @@ public class MessageDto {
         this.timestamp = timestamp;
     }
 
+    public MessageDto(Long id, String room, String player, String content, LocalDateTime timestamp) {
+        this(id, player, content, timestamp);
+        this.room = room;
+    }
+
     public LocalDateTime getTimestamp() {
         return timestamp;
     }
@@ -34,6 +40,14 @@ public class MessageDto {
         this.content = content;
     }
 
+    public String getRoom() {
+        return room;
+    }
+
+    public void setRoom(String room) {
+        this.room = room;
+    }
+
     public String getPlayer() {
         return player;
     }
@@ -0,0 +1,226 @@
+package dow.model.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SpriteAtlasDto {
+    private String name;
+    private List<String> sprites = new ArrayList<>();
+    private List<Page> pages = new ArrayList<>();
+    private List<AnimationEntry> animations = new ArrayList<>();
+
+    public SpriteAtlasDto() {
+    }
+
+    public SpriteAtlasDto(String name, List<String> sprites) {
+        this.name = name;
+        this.sprites = sprites;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public List<String> getSprites() {
+        return sprites;
+    }
+
+    public void setSprites(List<String> sprites) {
+        this.sprites = sprites;
+    }
+
+    public List<Page> getPages() {
+        return pages;
+    }
+
+    public void setPages(List<Page> pages) {
+        this.pages = pages;
+    }
+
+    public List<AnimationEntry> getAnimations() {
+        return animations;
+    }
+
+    public void setAnimations(List<AnimationEntry> animations) {
+        this.animations = animations;
+    }
+
+    public static class Page {
+        private String url;
+        private int width;
+        private int height;
+
+        public Page() {
+        }
+
+        public Page(String url, int width, int height) {
+            this.url = url;
+            this.width = width;
+            this.height = height;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public void setWidth(int width) {
+            this.width = width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public void setHeight(int height) {
+            this.height = height;
+        }
+    }
+
+    /**
+     * frames contient un triplet [page, x, y] par frame, dans l'ordre de l'animation.
+     */
+    public static class AnimationEntry {
+        private Long animationId;
+        private String sprite;
+        private String image;
+        private int frameWidth;
+        private int frameHeight;
+        private int frameRate;
+        private float scale;
+        private Integer hitboxX;
+        private Integer hitboxY;
+        private Integer hitboxWidth;
+        private Integer hitboxHeight;
+        private int[][] frames;
+
+        public AnimationEntry() {
+        }
+
+        public AnimationEntry(SpriteInfos info, int frameWidth, int frameHeight) {
+            this.animationId = info.getAnimationId();
+            this.sprite = info.getName();
+            this.image = info.getImageUrl();
+            this.frameWidth = frameWidth;
+            this.frameHeight = frameHeight;
+            this.frames = new int[info.getFrames()][];
+            applyMetadata(info);
+        }
+
+        public void applyMetadata(SpriteInfos info) {
+            this.frameRate = info.getFrameRate();
+            this.scale = info.getScale();
+            this.hitboxX = info.getHitboxX();
+            this.hitboxY = info.getHitboxY();
+            this.hitboxWidth = info.getHitboxWidth();
+            this.hitboxHeight = info.getHitboxHeight();
+        }
+
+        public Long getAnimationId() {
+            return animationId;
+        }
+
+        public void setAnimationId(Long animationId) {
+            this.animationId = animationId;
+        }
+
+        public String getSprite() {
+            return sprite;
+        }
+
+        public void setSprite(String sprite) {
+            this.sprite = sprite;
+        }
+
+        public String getImage() {
+            return image;
+        }
+
+        public void setImage(String image) {
+            this.image = image;
+        }
+
+        public int getFrameWidth() {
+            return frameWidth;
+        }
+
+        public void setFrameWidth(int frameWidth) {
+            this.frameWidth = frameWidth;
+        }
+
+        public int getFrameHeight() {
+            return frameHeight;
+        }
+
+        public void setFrameHeight(int frameHeight) {
+            this.frameHeight = frameHeight;
+        }
+
+        public int getFrameRate() {
+            return frameRate;
+        }
+
+        public void setFrameRate(int frameRate) {
+            this.frameRate = frameRate;
+        }
+
+        public float getScale() {
+            return scale;
+        }
+
+        public void setScale(float scale) {
+            this.scale = scale;
+        }
+
+        public Integer getHitboxX() {
+            return hitboxX;
+        }
+
+        public void setHitboxX(Integer hitboxX) {
+            this.hitboxX = hitboxX;
+        }
+
+        public Integer getHitboxY() {
+            return hitboxY;
+        }
+
+        public void setHitboxY(Integer hitboxY) {
+            this.hitboxY = hitboxY;
+        }
+
+        public Integer getHitboxWidth() {
+            return hitboxWidth;
+        }
+
+        public void setHitboxWidth(Integer hitboxWidth) {
+            this.hitboxWidth = hitboxWidth;
+        }
+
+        public Integer getHitboxHeight() {
+            return hitboxHeight;
+        }
+
+        public void setHitboxHeight(Integer hitboxHeight) {
+            this.hitboxHeight = hitboxHeight;
+        }
+
+        public int[][] getFrames() {
+            return frames;
+        }
+
+        public void setFrames(int[][] frames) {
+            this.frames = frames;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package dow.model.dto;
+
+import dow.model.SpriteChangedEvent;
+import dow.model.enumeration.SpriteChangeType;
+
+public class SpriteCatalogChange {
+    private String nodeId;
+    private SpriteChangeType type;
+    private String spriteName;
+    private Long animationId;
+    private String previousName;
+
+    public SpriteCatalogChange() {
+    }
+
+    public SpriteCatalogChange(String nodeId, SpriteChangedEvent event) {
+        this.nodeId = nodeId;
+        this.type = event.type();
+        this.spriteName = event.spriteName();
+        this.animationId = event.animationId();
+        this.previousName = event.previousName();
+    }
+
+    public SpriteChangedEvent toEvent() {
+        return new SpriteChangedEvent(type, spriteName, animationId, previousName, nodeId);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public SpriteChangeType getType() {
+        return type;
+    }
+
+    public void setType(SpriteChangeType type) {
+        this.type = type;
+    }
+
+    public String getSpriteName() {
+        return spriteName;
+    }
+
+    public void setSpriteName(String spriteName) {
+        this.spriteName = spriteName;
+    }
+
+    public Long getAnimationId() {
+        return animationId;
+    }
+
+    public void setAnimationId(Long animationId) {
+        this.animationId = animationId;
+    }
+
+    public String getPreviousName() {
+        return previousName;
+    }
+
+    public void setPreviousName(String previousName) {
+        this.previousName = previousName;
+    }
+}
@@ -0,0 +1,72 @@
+package dow.model.dto;
+
+import dow.model.enumeration.SpriteImportStage;
+
+public class SpriteImportEvent {
+    private String jobId;
+    private SpriteImportStage stage;
+    private int done;
+    private int total;
+    private String message;
+    private SpriteInfos sprite;
+
+    public SpriteImportEvent() {
+    }
+
+    public SpriteImportEvent(String jobId, SpriteImportStage stage, int done, int total, String message, SpriteInfos sprite) {
+        this.jobId = jobId;
+        this.stage = stage;
+        this.done = done;
+        this.total = total;
+        this.message = message;
+        this.sprite = sprite;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public SpriteImportStage getStage() {
+        return stage;
+    }
+
+    public void setStage(SpriteImportStage stage) {
+        this.stage = stage;
+    }
+
+    public int getDone() {
+        return done;
+    }
+
+    public void setDone(int done) {
+        this.done = done;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public SpriteInfos getSprite() {
+        return sprite;
+    }
+
+    public void setSprite(SpriteInfos sprite) {
+        this.sprite = sprite;
+    }
+}
@@ -0,0 +1,61 @@
+package dow.model.dto;
+
+import dow.model.enumeration.SpriteImportStatus;
+
+public class SpriteImportResultDto {
+    private String name;
+    private SpriteImportStatus status;
+    private int animations;
+    private String message;
+    private SpriteInfos sprite;
+
+    public SpriteImportResultDto() {
+    }
+
+    public SpriteImportResultDto(String name, SpriteImportStatus status, int animations, String message) {
+        this.name = name;
+        this.status = status;
+        this.animations = animations;
+        this.message = message;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public SpriteImportStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(SpriteImportStatus status) {
+        this.status = status;
+    }
+
+    public int getAnimations() {
+        return animations;
+    }
+
+    public void setAnimations(int animations) {
+        this.animations = animations;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public SpriteInfos getSprite() {
+        return sprite;
+    }
+
+    public void setSprite(SpriteInfos sprite) {
+        this.sprite = sprite;
+    }
+}
@@ -13,8 +13,9 @@ public class SpriteInfos {
     private Integer hitboxY;
     private Integer hitboxWidth;
     private Integer hitboxHeight;
+    private String version;
 
-    public SpriteInfos(Long animationId, String name, String imageUrl, int width, int height, int frames, float scale, int frameRate, Integer hitboxX, Integer hitboxY, Integer hitboxWidth, Integer hitboxHeight) {
+    public SpriteInfos(Long animationId, String name, String imageUrl, int width, int height, int frames, float scale, int frameRate, Integer hitboxX, Integer hitboxY, Integer hitboxWidth, Integer hitboxHeight, String version) {
         this.animationId = animationId;
         this.name = name;
         this.imageUrl = imageUrl;
@@ -27,6 +28,7 @@ public class SpriteInfos {
         this.hitboxY = hitboxY;
         this.hitboxWidth = hitboxWidth;
         this.hitboxHeight = hitboxHeight;
+        this.version = version;
     }
 
     public Long getAnimationId() {
@@ -120,4 +122,12 @@ public class SpriteInfos {
     public void setHitboxHeight(Integer hitboxHeight) {
         this.hitboxHeight = hitboxHeight;
     }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package dow.model.dto;
+
+public record StompSessionStats(int authenticatedSessions,
+                                long connects,
+                                long rejectedConnects,
+                                long anonymousFrames,
+                                long deniedSubscriptions,
+                                long deniedSends) {
+}
@@ -0,0 +1,4 @@
+package dow.model.dto;
+
+public record TokenCacheStats(int size, long hits, long misses, long evictions, int revoked) {
+}
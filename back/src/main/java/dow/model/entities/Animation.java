@@ -39,6 +39,9 @@ public class Animation {
     @Column(name = "hitbox_height")
     private Integer hitboxHeight;
 
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @Enumerated(EnumType.STRING)
     private AnimationType type;
 
@@ -119,6 +122,14 @@ public class Animation {
         this.frameRate = frameRate;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     public Integer getHitboxX() {
         return hitboxX;
     }
@@ -1,17 +1,17 @@
 package dow.model.entities;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import dow.model.ChatRoom;
 import jakarta.persistence.*;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
-@Table(name = "message")
+@Table(name = "message", indexes = @Index(name = "idx_message_room_timestamp_id", columnList = "room_id, timestamp DESC, id DESC"))
 public class Message {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -22,6 +22,9 @@ public class Message {
     @Column(nullable = false)
     private String content;
 
+    @Column(name = "room_id", nullable = false, length = 64)
+    private String roomId = ChatRoom.GLOBAL_ID;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime timestamp;
 
@@ -33,6 +36,10 @@ public class Message {
         return id;
     }
 
+    public void setId(Long id) {
+        this.id = id;
+    }
+
 
     public Player getPlayer() {
         return player;
@@ -50,6 +57,14 @@ public class Message {
         this.content = content;
     }
 
+    public String getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(String roomId) {
+        this.roomId = roomId;
+    }
+
     public LocalDateTime getTimestamp() {
         return timestamp;
     }
@@ -50,6 +50,10 @@ public class Player {
         return password;
     }
 
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
     public Set<Role> getRoles() {
         return roles;
     }
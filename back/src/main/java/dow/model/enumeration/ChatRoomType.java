@@ -0,0 +1,7 @@
+package dow.model.enumeration;
+
+public enum ChatRoomType {
+    GLOBAL,
+    MATCH,
+    DIRECT
+}
@@ -0,0 +1,10 @@
+package dow.model.enumeration;
+
+public enum SpriteChangeType {
+    IMPORTED,
+    NORMALIZED,
+    FLIPPED,
+    METADATA,
+    RENAMED,
+    DELETED
+}
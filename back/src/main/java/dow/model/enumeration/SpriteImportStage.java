@@ -0,0 +1,10 @@
+package dow.model.enumeration;
+
+public enum SpriteImportStage {
+    QUEUED,
+    UNZIPPED,
+    ANALYZED,
+    STORED,
+    COMMITTED,
+    FAILED
+}
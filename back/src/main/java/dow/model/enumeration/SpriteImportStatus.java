@@ -0,0 +1,8 @@
+package dow.model.enumeration;
+
+public enum SpriteImportStatus {
+    IMPORTED,
+    ALREADY_EXISTS,
+    INVALID,
+    FAILED
+}
@@ -1,9 +1,31 @@
 package dow.repository;
 
+import dow.model.dto.AnimationVersion;
 import dow.model.entities.Animation;
+import dow.model.enumeration.AnimationType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface AnimationRepository extends JpaRepository<Animation, Long> {
+
+    @Query("""
+            SELECT new dow.model.dto.AnimationVersion(a.id, a.contentHash)
+            FROM Animation a
+            WHERE a.sprite.name = :spriteName AND a.type = :type AND a.indice = :indice
+            """)
+    AnimationVersion findVersion(
+            @Param("spriteName") String spriteName,
+            @Param("type") AnimationType type,
+            @Param("indice") int indice
+    );
+
+    long countByContentHash(String contentHash);
+
+    @Query("SELECT DISTINCT a.contentHash FROM Animation a WHERE a.contentHash IS NOT NULL")
+    List<String> findAllContentHashes();
 }
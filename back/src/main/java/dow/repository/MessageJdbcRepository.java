@@ -0,0 +1,43 @@
+package dow.repository;
+
+import dow.model.ChatMessage;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+public class MessageJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MessageJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Renvoie le nombre de messages non insérés parce que leur id existait déjà : un rejeu d'un lot
+     * partiellement écrit, ou deux nœuds qui partagent le même chat.node-id.
+     */
+    public int insertMessages(List<ChatMessage> messages) {
+        List<Object[]> rows = new ArrayList<>(messages.size());
+        for (ChatMessage message : messages) {
+            rows.add(new Object[]{message.id(), message.roomId(), message.playerId(), message.content(), Timestamp.valueOf(message.timestamp())});
+        }
+
+        int[] counts = jdbcTemplate.batchUpdate(
+                "INSERT INTO message (id, room_id, player_id, content, timestamp) VALUES (?, ?, ?, ?, ?) ON CONFLICT (id) DO NOTHING",
+                rows
+        );
+
+        int conflicts = 0;
+        for (int count : counts) {
+            if (count == 0) {
+                conflicts++;
+            }
+        }
+        return conflicts;
+    }
+}
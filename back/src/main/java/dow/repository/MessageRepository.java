@@ -2,13 +2,33 @@ package dow.repository;
 
 import dow.model.dto.MessageDto;
 import dow.model.entities.Message;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface MessageRepository extends JpaRepository<Message, Long> {
-    @Query("SELECT new dow.model.dto.MessageDto(m.id, p.pseudo, m.content, m.timestamp) " +
-            "FROM Message m JOIN m.player p ORDER BY m.timestamp DESC")
+    @Query("SELECT new dow.model.dto.MessageDto(m.id, m.roomId, p.pseudo, m.content, m.timestamp) " +
+            "FROM Message m JOIN m.player p WHERE m.roomId = 'global' ORDER BY m.timestamp DESC")
     Page<MessageDto> findAllMessages(Pageable pageable);
+
+    @Query("SELECT new dow.model.dto.MessageDto(m.id, m.roomId, p.pseudo, m.content, m.timestamp) " +
+            "FROM Message m JOIN m.player p " +
+            "WHERE m.roomId = :roomId " +
+            "ORDER BY m.timestamp DESC, m.id DESC")
+    List<MessageDto> findLatestMessages(@Param("roomId") String roomId, Limit limit);
+
+    @Query("SELECT new dow.model.dto.MessageDto(m.id, m.roomId, p.pseudo, m.content, m.timestamp) " +
+            "FROM Message m JOIN m.player p " +
+            "WHERE m.roomId = :roomId AND (m.timestamp, m.id) < (:timestamp, :id) " +
+            "ORDER BY m.timestamp DESC, m.id DESC")
+    List<MessageDto> findMessagesBefore(@Param("roomId") String roomId,
+                                        @Param("timestamp") LocalDateTime timestamp,
+                                        @Param("id") Long id,
+                                        Limit limit);
 }
@@ -0,0 +1,62 @@
+package dow.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Journal des changements du catalogue, partagé par toutes les répliques : une ligne par sprite modifié,
+ * numérotée par une séquence. Les écritures sont sérialisées par un verrou consultatif pris dans la
+ * transaction du changement, si bien que l'ordre des versions est celui des commits.
+ */
+@Repository
+public class SpriteCatalogChangeRepository {
+
+    private static final long LOCK_KEY = 0x444F5743L;
+
+    public record Bounds(long oldest, long current) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SpriteCatalogChangeRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insert(Collection<String> spriteNames) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", rs -> null, LOCK_KEY);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO sprite_catalog_change (sprite_name) VALUES (?)",
+                spriteNames.stream().map(name -> new Object[]{name}).toList()
+        );
+    }
+
+    /**
+     * Versions extrêmes encore dans le journal ; 0 et 0 s'il est vide.
+     */
+    public Bounds bounds() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MIN(version), 0), COALESCE(MAX(version), 0) FROM sprite_catalog_change",
+                (rs, rowNum) -> new Bounds(rs.getLong(1), rs.getLong(2))
+        );
+    }
+
+    public List<String> findSpriteNamesBetween(long after, long upTo) {
+        return jdbcTemplate.queryForList(
+                "SELECT DISTINCT sprite_name FROM sprite_catalog_change WHERE version > ? AND version <= ?",
+                String.class, after, upTo
+        );
+    }
+
+    /**
+     * Ne garde que les keep dernières versions.
+     */
+    public int prune(int keep) {
+        return jdbcTemplate.update(
+                "DELETE FROM sprite_catalog_change WHERE version <= (SELECT MAX(version) FROM sprite_catalog_change) - ?",
+                keep
+        );
+    }
+}
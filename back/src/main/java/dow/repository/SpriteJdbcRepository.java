@@ -0,0 +1,94 @@
+package dow.repository;
+
+import dow.model.dto.SpriteInfos;
+import dow.model.entities.Animation;
+import dow.model.entities.Sprite;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+
+@Repository
+public class SpriteJdbcRepository {
+
+    private static final int SPRITE_CHUNK = 500;
+    private static final int ANIMATION_BATCH = 200;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SpriteJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Map<String, Long> insertSprites(List<Sprite> sprites) {
+        Map<String, Long> ids = new HashMap<>();
+
+        for (int from = 0; from < sprites.size(); from += SPRITE_CHUNK) {
+            List<Sprite> chunk = sprites.subList(from, Math.min(from + SPRITE_CHUNK, sprites.size()));
+            StringJoiner values = new StringJoiner(", ");
+            List<Object> params = new ArrayList<>();
+
+            for (Sprite sprite : chunk) {
+                values.add("(?, ?)");
+                params.add(sprite.getName());
+                params.add(sprite.getScale());
+            }
+
+            jdbcTemplate.query(
+                    "INSERT INTO sprite (name, scale) VALUES " + values + " RETURNING id, name",
+                    rs -> {
+                        ids.put(rs.getString("name"), rs.getLong("id"));
+                    },
+                    params.toArray()
+            );
+        }
+
+        return ids;
+    }
+
+    public void insertAnimations(Map<String, Long> spriteIds, List<Sprite> sprites) {
+        List<Object[]> rows = new ArrayList<>();
+
+        for (Sprite sprite : sprites) {
+            Long spriteId = spriteIds.get(sprite.getName());
+            for (Animation a : sprite.getAnimations()) {
+                rows.add(new Object[]{
+                        spriteId,
+                        a.getType().name(),
+                        a.getIndice(),
+                        a.getFrames(),
+                        a.getWidth(),
+                        a.getHeight(),
+                        a.getFrameRate(),
+                        a.getContentHash()
+                });
+            }
+        }
+
+        for (int from = 0; from < rows.size(); from += ANIMATION_BATCH) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO animation (sprite_id, type, indice, frames, width, height, frame_rate, content_hash) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                    rows.subList(from, Math.min(from + ANIMATION_BATCH, rows.size()))
+            );
+        }
+    }
+
+    public void updateAnimationSheets(List<SpriteInfos> infos) {
+        List<Object[]> rows = new ArrayList<>();
+
+        for (SpriteInfos info : infos) {
+            rows.add(new Object[]{info.getWidth(), info.getHeight(), info.getVersion(), info.getAnimationId()});
+        }
+
+        for (int from = 0; from < rows.size(); from += ANIMATION_BATCH) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE animation SET width = ?, height = ?, content_hash = ? WHERE id = ?",
+                    rows.subList(from, Math.min(from + ANIMATION_BATCH, rows.size()))
+            );
+        }
+    }
+
+    public void updateContentHash(Long animationId, String contentHash) {
+        jdbcTemplate.update("UPDATE animation SET content_hash = ? WHERE id = ?", contentHash, animationId);
+    }
+}
@@ -1,5 +1,6 @@
 package dow.repository;
 
+import dow.model.dto.CatalogRow;
 import dow.model.dto.SpriteInfos;
 import dow.model.entities.Sprite;
 import dow.model.enumeration.AnimationType;
@@ -8,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +20,12 @@ public interface SpriteRepository extends JpaRepository<Sprite, Long> {
 
     Optional<Sprite> findByName(String name);
 
+    @Query("SELECT s.name FROM Sprite s WHERE s.name IN :names")
+    List<String> findExistingNames(@Param("names") Collection<String> names);
+
+    @Query("SELECT s.name FROM Sprite s ORDER BY s.name")
+    List<String> findAllNames();
+
     @Query("""
             SELECT new dow.model.dto.SpriteInfos(
                     a.id,
@@ -31,7 +39,8 @@ public interface SpriteRepository extends JpaRepository<Sprite, Long> {
                     a.hitboxX,
                     a.hitboxY,
                     a.hitboxWidth,
-                    a.hitboxHeight
+                    a.hitboxHeight,
+                    a.contentHash
             )
             FROM Sprite s
             JOIN s.animations a
@@ -55,7 +64,8 @@ public interface SpriteRepository extends JpaRepository<Sprite, Long> {
                     a.hitboxX,
                     a.hitboxY,
                     a.hitboxWidth,
-                    a.hitboxHeight
+                    a.hitboxHeight,
+                    a.contentHash
             )
             FROM Sprite s
             JOIN s.animations a
@@ -78,7 +88,34 @@ public interface SpriteRepository extends JpaRepository<Sprite, Long> {
                     a.hitboxX,
                     a.hitboxY,
                     a.hitboxWidth,
-                    a.hitboxHeight
+                    a.hitboxHeight,
+                    a.contentHash
+            )
+            FROM Sprite s
+            JOIN s.animations a
+            WHERE a.type = :animationType AND s.name IN :spriteNames
+            ORDER BY s.name, a.indice
+            """)
+    List<SpriteInfos> findSpriteInfosByTypeAndNameIn(
+            @Param("animationType") AnimationType animationType,
+            @Param("spriteNames") Collection<String> spriteNames
+    );
+
+    @Query("""
+            SELECT new dow.model.dto.SpriteInfos(
+                    a.id,
+                    s.name,
+                    CONCAT(s.name, '/', a.type, '/', a.indice, '.png'),
+                    a.width,
+                    a.height,
+                    a.frames,
+                    s.scale,
+                    a.frameRate,
+                    a.hitboxX,
+                    a.hitboxY,
+                    a.hitboxWidth,
+                    a.hitboxHeight,
+                    a.contentHash
             )
             FROM Sprite s
             JOIN s.animations a
@@ -100,11 +137,104 @@ public interface SpriteRepository extends JpaRepository<Sprite, Long> {
                     a.hitboxX,
                     a.hitboxY,
                     a.hitboxWidth,
-                    a.hitboxHeight
+                    a.hitboxHeight,
+                    a.contentHash
+            )
+            FROM Sprite s
+            JOIN s.animations a
+            WHERE s.name IN :spriteNames
+            ORDER BY s.name, a.id
+            """)
+    List<SpriteInfos> findAllAnimationsBySpriteNameIn(@Param("spriteNames") Collection<String> spriteNames);
+
+    @Query("""
+            SELECT new dow.model.dto.SpriteInfos(
+                    a.id,
+                    s.name,
+                    CONCAT(s.name, '/', a.type, '/', a.indice, '.png'),
+                    a.width,
+                    a.height,
+                    a.frames,
+                    s.scale,
+                    a.frameRate,
+                    a.hitboxX,
+                    a.hitboxY,
+                    a.hitboxWidth,
+                    a.hitboxHeight,
+                    a.contentHash
             )
             FROM Sprite s
             JOIN s.animations a
             WHERE a.id = :animationId
             """)
     SpriteInfos findSpriteInfosByAnimationId(@Param("animationId") Long animationId);
-}
\ No newline at end of file
+
+    @Query("""
+            SELECT new dow.model.dto.SpriteInfos(
+                    a.id,
+                    s.name,
+                    CONCAT(s.name, '/', a.type, '/', a.indice, '.png'),
+                    a.width,
+                    a.height,
+                    a.frames,
+                    s.scale,
+                    a.frameRate,
+                    a.hitboxX,
+                    a.hitboxY,
+                    a.hitboxWidth,
+                    a.hitboxHeight,
+                    a.contentHash
+            )
+            FROM Sprite s
+            JOIN s.animations a
+            ORDER BY a.id
+            """)
+    List<SpriteInfos> findAllSpriteInfos();
+
+    @Query("""
+            SELECT new dow.model.dto.CatalogRow(
+                    a.id,
+                    s.name,
+                    s.scale,
+                    a.type,
+                    a.indice,
+                    a.width,
+                    a.height,
+                    a.frames,
+                    a.frameRate,
+                    a.hitboxX,
+                    a.hitboxY,
+                    a.hitboxWidth,
+                    a.hitboxHeight,
+                    a.contentHash
+            )
+            FROM Sprite s
+            JOIN s.animations a
+            ORDER BY s.name, a.id
+            """)
+    List<CatalogRow> findCatalogRows();
+
+    @Query("""
+            SELECT new dow.model.dto.CatalogRow(
+                    a.id,
+                    s.name,
+                    s.scale,
+                    a.type,
+                    a.indice,
+                    a.width,
+                    a.height,
+                    a.frames,
+                    a.frameRate,
+                    a.hitboxX,
+                    a.hitboxY,
+                    a.hitboxWidth,
+                    a.hitboxHeight,
+                    a.contentHash
+            )
+            FROM Sprite s
+            JOIN s.animations a
+            WHERE s.name IN :spriteNames
+            ORDER BY s.name, a.id
+            """)
+    List<CatalogRow> findCatalogRowsBySpriteNameIn(@Param("spriteNames") Collection<String> spriteNames);
+}
@@ -1,73 +1,161 @@
 package dow.security;
 
 import dow.exception.JwtAuthenticationException;
+import dow.model.ChatRoom;
+import dow.model.CustomUserDetails;
+import dow.model.dto.StompSessionStats;
+import dow.service.ChatRoomService;
 import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.stereotype.Component;
 
 import java.security.Principal;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Authentifie une session STOMP une seule fois, au CONNECT : le Principal est posé sur le message (Spring
+ * l'associe alors à la session et le recopie sur chaque trame suivante) et dans les attributs de session.
+ * Les trames suivantes ne coûtent qu'une lecture d'en-tête ; seuls un SUBSCRIBE à un salon de discussion
+ * et un SEND hors de /app sont vérifiés. Pas de journalisation par trame : des compteurs, exposés par stats().
+ */
 @Component
 public class JwtChannelInterceptor implements ChannelInterceptor {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtChannelInterceptor.class);
+    public static final String PRINCIPAL_ATTRIBUTE = "dow.principal";
+    private static final List<String> BROKER_PREFIXES = List.of("/topic", "/queue", "/user");
+
     private final JwtUtils jwtUtils;
-    private final Map<String, Principal> sessionUserMap = new ConcurrentHashMap<>();
+    private final ChatRoomService chatRoomService;
+    private final Set<String> authenticatedSessions = ConcurrentHashMap.newKeySet();
+    private final LongAdder connects = new LongAdder();
+    private final LongAdder rejectedConnects = new LongAdder();
+    private final LongAdder anonymousFrames = new LongAdder();
+    private final LongAdder deniedSubscriptions = new LongAdder();
+    private final LongAdder deniedSends = new LongAdder();
 
-    public JwtChannelInterceptor(JwtUtils jwtUtils) {
+    public JwtChannelInterceptor(JwtUtils jwtUtils, ChatRoomService chatRoomService) {
         this.jwtUtils = jwtUtils;
+        this.chatRoomService = chatRoomService;
     }
 
     @Override
     public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
-        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
-        StompCommand command = accessor.getCommand();
-        if (command == null) return message;
-
-        String sessionId = accessor.getSessionId();
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
 
-        switch (command) {
-            case CONNECT -> handleConnect(accessor, sessionId);
-            case DISCONNECT -> handleDisconnect(sessionId);
-            default -> handleOtherCommand(accessor, sessionId, command);
+        switch (accessor.getCommand()) {
+            case CONNECT -> handleConnect(accessor);
+            case DISCONNECT -> handleDisconnect(accessor);
+            case SUBSCRIBE -> checkChatSubscription(accessor);
+            case UNSUBSCRIBE -> chatRoomService.unsubscribed(accessor.getSessionId(), accessor.getSubscriptionId());
+            case SEND -> checkSendDestination(accessor);
+            default -> {
+                if (accessor.getUser() == null) {
+                    anonymousFrames.increment();
+                }
+            }
         }
         return message;
     }
 
-    private void handleConnect(StompHeaderAccessor accessor, String sessionId) {
+    public StompSessionStats stats() {
+        return new StompSessionStats(
+                authenticatedSessions.size(),
+                connects.sum(),
+                rejectedConnects.sum(),
+                anonymousFrames.sum(),
+                deniedSubscriptions.sum(),
+                deniedSends.sum());
+    }
+
+    private void handleConnect(StompHeaderAccessor accessor) {
+        connects.increment();
         String jwt = jwtUtils.extractToken(accessor.getFirstNativeHeader("Authorization"));
         try {
             UsernamePasswordAuthenticationToken auth = jwtUtils.getAuthenticationFromToken(jwt);
             accessor.setUser(auth);
-            sessionUserMap.put(sessionId, auth);
-            System.out.println("STOMP CONNECT de l'utilisateur : " + auth.getName());
+            Map<String, Object> attributes = accessor.getSessionAttributes();
+            if (attributes != null) {
+                attributes.put(PRINCIPAL_ATTRIBUTE, auth);
+            }
+            authenticatedSessions.add(accessor.getSessionId());
+            log.debug("STOMP CONNECT de l'utilisateur : {}", auth.getName());
         } catch (JwtAuthenticationException e) {
-            System.out.println("STOMP CONNECT refusé : JWT invalide ou absent");
+            rejectedConnects.increment();
+            log.debug("STOMP CONNECT anonyme : JWT invalide ou absent");
         }
     }
 
-    private void handleDisconnect(String sessionId) {
-        Principal user = sessionUserMap.remove(sessionId);
-        if (user != null) System.out.println("Session STOMP déconnectée pour : " + user.getName());
+    private void handleDisconnect(StompHeaderAccessor accessor) {
+        chatRoomService.disconnected(accessor.getSessionId());
+        if (authenticatedSessions.remove(accessor.getSessionId())) {
+            Principal user = accessor.getUser();
+            log.debug("Session STOMP déconnectée pour : {}", user != null ? user.getName() : accessor.getSessionId());
+        }
+    }
+
+    /**
+     * Seul le serveur publie sur le broker : un client qui envoie directement sur /topic, /queue ou /user
+     * contournerait les contrôles des @MessageMapping (messages de chat, état des parties, invalidations).
+     */
+    private void checkSendDestination(StompHeaderAccessor accessor) {
+        if (accessor.getUser() == null) {
+            anonymousFrames.increment();
+        }
+
+        String destination = accessor.getDestination();
+        if (destination == null) {
+            return;
+        }
+        for (String prefix : BROKER_PREFIXES) {
+            if (destination.startsWith(prefix)) {
+                deniedSends.increment();
+                throw new AccessDeniedException("Envoi direct refusé vers " + destination);
+            }
+        }
     }
 
-    private void handleOtherCommand(StompHeaderAccessor accessor, String sessionId, StompCommand command) {
+    /**
+     * Un abonnement à un salon de discussion privé n'est accepté que pour un de ses membres ; il est retiré
+     * par ChatRoomService si le joueur quitte le salon.
+     */
+    private void checkChatSubscription(StompHeaderAccessor accessor) {
         Principal user = accessor.getUser();
         if (user == null) {
-            user = sessionUserMap.get(sessionId);
-            if (user != null) accessor.setUser(user);
+            anonymousFrames.increment();
         }
-        if (user == null) {
-            System.out.println("Commande STOMP " + command + " bloquée : utilisateur non authentifié");
-        } else {
-            System.out.println("STOMP " + command + " de l'utilisateur : " + user.getName()
-                    + " sur " + accessor.getDestination());
+
+        String destination = accessor.getDestination();
+        if (destination == null || !destination.startsWith(ChatRoom.TOPIC)) {
+            return;
+        }
+
+        ChatRoom room = ChatRoom.fromTopic(destination);
+        Long playerId = null;
+        if (user instanceof UsernamePasswordAuthenticationToken auth
+                && auth.getPrincipal() instanceof CustomUserDetails details) {
+            playerId = details.getPlayer().getId();
+        }
+
+        if (room == null || !chatRoomService.subscribe(room, playerId, accessor.getSessionId(), accessor.getSubscriptionId())) {
+            deniedSubscriptions.increment();
+            throw new AccessDeniedException("Accès refusé au salon " + destination);
         }
     }
-}
\ No newline at end of file
+}
@@ -2,34 +2,61 @@ package dow.security;
 
 import dow.exception.JwtAuthenticationException;
 import dow.model.CustomUserDetails;
+import dow.model.entities.Player;
+import dow.model.entities.Role;
 import dow.service.PlayerService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Date;
-
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Jetons d'accès courts portant l'identifiant et les rôles du joueur (signés), ce qui permet d'authentifier
+ * une requête sans accès à la base ; les jetons de rafraîchissement, plus longs, ne servent qu'à en obtenir
+ * un nouveau avec les rôles relus en base.
+ */
 @Service
 public class JwtUtils {
 
-    private final PlayerService playerService;
-
-    @Value("${app.jwtSecret}")
-    private String jwtSecret;
+    private static final String CLAIM_TYPE = "typ";
+    private static final String CLAIM_PLAYER_ID = "pid";
+    private static final String CLAIM_ROLES = "roles";
+    private static final String TYPE_ACCESS = "access";
+    private static final String TYPE_REFRESH = "refresh";
 
-    @Value("${app.jwtExpirationMs}")
-    private int jwtExpirationMs;
-
-    public JwtUtils(PlayerService playerService) {
+    private final PlayerService playerService;
+    private final VerifiedTokenCache tokenCache;
+    private final SecretKey key;
+    private final JwtParser parser;
+    private final long jwtExpirationMs;
+    private final long refreshExpirationMs;
+
+    public JwtUtils(PlayerService playerService,
+                    VerifiedTokenCache tokenCache,
+                    @Value("${app.jwtSecret}") String jwtSecret,
+                    @Value("${app.jwtExpirationMs}") long jwtExpirationMs,
+                    @Value("${app.jwtRefreshExpirationMs:604800000}") long refreshExpirationMs) {
         this.playerService = playerService;
+        this.tokenCache = tokenCache;
+        this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.refreshExpirationMs = refreshExpirationMs;
     }
 
     public String generateJwtToken(Authentication authentication) {
@@ -41,38 +68,45 @@ public class JwtUtils {
             throw new IllegalArgumentException("Principal is not CustomUserDetails");
         }
 
-        Instant now = Instant.now();
-        Instant expiryInstant = now.plusMillis(jwtExpirationMs);
+        return generateJwtToken(userPrincipal);
+    }
 
-        return Jwts.builder()
-                .subject(userPrincipal.getUsername())
-                .issuedAt(Date.from(now))
-                .expiration(Date.from(expiryInstant))
-                .signWith(key())
+    public String generateJwtToken(CustomUserDetails user) {
+        Player player = user.getPlayer();
+        List<String> roles = player.getRoles().stream()
+                .map(Role::getName)
+                .toList();
+
+        return build(user.getUsername(), player.getId(), TYPE_ACCESS, jwtExpirationMs)
+                .claim(CLAIM_ROLES, roles)
                 .compact();
     }
 
-    private SecretKey key() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    public String generateRefreshToken(CustomUserDetails user) {
+        return build(user.getUsername(), user.getPlayer().getId(), TYPE_REFRESH, refreshExpirationMs).compact();
     }
 
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parser()
-                .verifyWith(key())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+    private JwtBuilder build(String subject, Long playerId, String type, long expirationMs) {
+        Instant now = Instant.now();
+
+        return Jwts.builder()
+                .subject(subject)
+                .claim(CLAIM_PLAYER_ID, playerId)
+                .claim(CLAIM_TYPE, type)
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plusMillis(expirationMs)))
+                .signWith(key);
     }
 
-    public boolean validateJwtToken(String authToken) {
+    /**
+     * Vérifie la signature et l'expiration en un seul parsing.
+     */
+    public Claims parse(String token) {
+        if (token == null) {
+            throw new JwtAuthenticationException("INVALID_OR_EXPIRED_TOKEN");
+        }
         try {
-            Jwts.parser()
-                    .verifyWith(key())
-                    .build()
-                    .parseSignedClaims(authToken);
-
-            return true;
+            return parser.parseSignedClaims(token).getPayload();
         } catch (JwtException | IllegalArgumentException e) {
             throw new JwtAuthenticationException("INVALID_OR_EXPIRED_TOKEN");
         }
@@ -85,12 +119,72 @@ public class JwtUtils {
         return null;
     }
 
+    /**
+     * Authentification construite à partir des claims seuls, puis gardée dans VerifiedTokenCache. Les rôles
+     * sont relus en base pour les jetons émis avant un changement de droits, ou avant l'ajout des rôles aux
+     * claims.
+     */
     public UsernamePasswordAuthenticationToken getAuthenticationFromToken(String token) {
-        if (token == null || !validateJwtToken(token)) {
+        if (token == null) {
             throw new JwtAuthenticationException("INVALID_OR_EXPIRED_TOKEN");
         }
-        String username = getUserNameFromJwtToken(token);
-        UserDetails userDetails = playerService.loadUserByUsername(username);
+
+        CustomUserDetails userDetails = tokenCache.get(token);
+        if (userDetails == null) {
+            long generation = tokenCache.generation();
+            Claims claims = parse(token);
+            if (TYPE_REFRESH.equals(claims.get(CLAIM_TYPE, String.class)) || tokenCache.isRevoked(token)) {
+                throw new JwtAuthenticationException("INVALID_OR_EXPIRED_TOKEN");
+            }
+
+            Long playerId = claims.get(CLAIM_PLAYER_ID, Long.class);
+            boolean rolesUpToDate = claims.containsKey(CLAIM_ROLES)
+                    && !tokenCache.rolesChangedSince(playerId, claims.getIssuedAt().getTime());
+            userDetails = rolesUpToDate ? fromClaims(claims) : loadUser(claims.getSubject());
+            tokenCache.put(token, userDetails, claims.getExpiration().getTime(), generation);
+        }
+
         return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
     }
-}
\ No newline at end of file
+
+    /**
+     * Utilisateur d'un jeton de rafraîchissement, relu en base pour prendre en compte ses rôles actuels.
+     */
+    public CustomUserDetails getUserFromRefreshToken(String token) {
+        Claims claims = parse(token);
+        if (!TYPE_REFRESH.equals(claims.get(CLAIM_TYPE, String.class)) || tokenCache.isRevoked(token)) {
+            throw new JwtAuthenticationException("INVALID_OR_EXPIRED_TOKEN");
+        }
+        return loadUser(claims.getSubject());
+    }
+
+    /**
+     * Révoque un jeton (d'accès ou de rafraîchissement) jusqu'à son expiration ; un jeton déjà invalide
+     * est ignoré.
+     */
+    public void revoke(String token) {
+        try {
+            tokenCache.revoke(token, parse(token).getExpiration().getTime());
+        } catch (JwtAuthenticationException ignored) {
+        }
+    }
+
+    private CustomUserDetails loadUser(String pseudo) {
+        try {
+            return playerService.loadUserByUsername(pseudo);
+        } catch (UsernameNotFoundException e) {
+            throw new JwtAuthenticationException("INVALID_OR_EXPIRED_TOKEN");
+        }
+    }
+
+    private static CustomUserDetails fromClaims(Claims claims) {
+        Set<Role> roles = new LinkedHashSet<>();
+        for (Object name : claims.get(CLAIM_ROLES, List.class)) {
+            roles.add(new Role(null, String.valueOf(name)));
+        }
+
+        Player player = new Player(claims.get(CLAIM_PLAYER_ID, Long.class), claims.getSubject(), null);
+        player.setRoles(roles);
+        return new CustomUserDetails(player);
+    }
+}
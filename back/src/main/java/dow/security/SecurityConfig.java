@@ -1,5 +1,7 @@
 package dow.security;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -22,6 +24,10 @@ import java.util.List;
 @org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity
 public class SecurityConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+    private static final int MIN_BCRYPT_COST = 10;
+    private static final int MAX_BCRYPT_COST = 16;
+
     private final FilterInternal filterInternal;
     @Value("${front.port}")
     private String frontPort;
@@ -33,9 +39,32 @@ public class SecurityConfig {
         this.filterInternal = filterInternal;
     }
 
+    /**
+     * security.password.bcrypt-strength fixe le coût ; à 0, il est calibré au démarrage comme le plus
+     * élevé (minimum 10) dont un hachage tient dans security.password.target-ms.
+     */
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BCryptPasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength:10}") int strength,
+                                                 @Value("${security.password.target-ms:250}") long targetMs) {
+        int cost = strength > 0 ? strength : calibrate(targetMs);
+        log.info("Coût BCrypt: {}", cost);
+        return new BCryptPasswordEncoder(cost);
+    }
+
+    private static int calibrate(long targetMs) {
+        int cost = MIN_BCRYPT_COST;
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+        encoder.encode("calibration");
+
+        long start = System.nanoTime();
+        encoder.encode("calibration");
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        while (cost < MAX_BCRYPT_COST && elapsedMs * 2 <= targetMs) {
+            cost++;
+            elapsedMs *= 2;
+        }
+        return cost;
     }
 
     @Bean
@@ -50,7 +79,7 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
-                        .requestMatchers("/api/auth/register", "/api/auth/login", "/api/routes/available", "/ws/**", "/sprite-storage/**").permitAll()
+                        .requestMatchers("/api/auth/register", "/api/auth/login", "/api/auth/refresh", "/api/auth/logout", "/api/routes/available", "/ws/**", "/sprite-storage/**").permitAll()
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
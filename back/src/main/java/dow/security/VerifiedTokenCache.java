@@ -0,0 +1,167 @@
+package dow.security;
+
+import dow.model.AuthorizationChangedEvent;
+import dow.model.CustomUserDetails;
+import dow.model.dto.TokenCacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Jetons déjà vérifiés et l'utilisateur qui en a été déduit, jusqu'à l'expiration du jeton : une requête
+ * répétée avec le même jeton ne coûte qu'une lecture dans une ConcurrentHashMap.
+ * <p>
+ * La clé est le jeton complet et non sa seule signature, qui pourrait être recollée sur un autre contenu.
+ * Un changement de droits retire les entrées concernées et marque les jetons émis avant comme périmés pour
+ * leurs rôles ; un compteur de génération écarte les entrées calculées pendant une invalidation.
+ * Les révocations (déconnexion) sont gardées par signature jusqu'à l'expiration du jeton.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final Logger log = LoggerFactory.getLogger(VerifiedTokenCache.class);
+
+    private record Entry(CustomUserDetails user, Long playerId, long expiresAt) {
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final Map<Long, Long> rolesChangedAt = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final int maxEntries;
+    private final long accessLifetimeMs;
+    private volatile long allRolesChangedAt;
+
+    public VerifiedTokenCache(@Value("${app.jwtCacheMaxEntries:10000}") int maxEntries,
+                              @Value("${app.jwtExpirationMs}") long accessLifetimeMs) {
+        this.maxEntries = maxEntries;
+        this.accessLifetimeMs = accessLifetimeMs;
+    }
+
+    public CustomUserDetails get(String token) {
+        Entry entry = entries.get(token);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            entries.remove(token, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.user();
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * N'ajoute l'entrée que si aucune invalidation n'a eu lieu depuis generation.
+     */
+    public void put(String token, CustomUserDetails user, long expiresAt, long generation) {
+        Entry entry = new Entry(user, user.getPlayer().getId(), expiresAt);
+        entries.put(token, entry);
+        if (this.generation.get() != generation) {
+            entries.remove(token, entry);
+            return;
+        }
+        if (entries.size() > maxEntries) {
+            evict();
+        }
+    }
+
+    /**
+     * Vrai si les rôles du joueur ont changé après l'émission du jeton (issuedAt en millisecondes, à la
+     * seconde près comme le claim iat : un jeton émis dans la même seconde est considéré périmé).
+     */
+    public boolean rolesChangedSince(Long playerId, long issuedAt) {
+        long changedAt = Math.max(allRolesChangedAt, playerId != null ? rolesChangedAt.getOrDefault(playerId, 0L) : 0L);
+        return changedAt != 0 && issuedAt / 1000 <= changedAt / 1000;
+    }
+
+    public void revoke(String token, long expiresAt) {
+        revoked.put(signature(token), expiresAt);
+        generation.incrementAndGet();
+        entries.remove(token);
+    }
+
+    public boolean isRevoked(String token) {
+        return revoked.containsKey(signature(token));
+    }
+
+    private static String signature(String token) {
+        return token.substring(token.lastIndexOf('.') + 1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorizationChanged(AuthorizationChangedEvent event) {
+        long now = System.currentTimeMillis();
+        generation.incrementAndGet();
+
+        if (event.playerId() == null) {
+            allRolesChangedAt = now;
+            entries.clear();
+        } else {
+            rolesChangedAt.put(event.playerId(), now);
+            entries.values().removeIf(entry -> event.playerId().equals(entry.playerId()));
+        }
+    }
+
+    public TokenCacheStats stats() {
+        return new TokenCacheStats(entries.size(), hits.sum(), misses.sum(), evictions.sum(), revoked.size());
+    }
+
+    /**
+     * Retire les jetons expirés, les révocations devenues inutiles et les changements de rôles plus anciens
+     * que la durée de vie d'un jeton d'accès.
+     */
+    @Scheduled(fixedDelayString = "${app.jwtCachePurgeMs:60000}")
+    public void purge() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        rolesChangedAt.values().removeIf(changedAt -> changedAt + accessLifetimeMs < now);
+
+        TokenCacheStats stats = stats();
+        log.debug("Cache des jetons: {} entrées, {} hits, {} misses, {} évictions, {} révoqués",
+                stats.size(), stats.hits(), stats.misses(), stats.evictions(), stats.revoked());
+    }
+
+    /**
+     * Au-delà de la taille maximale : d'abord les entrées expirées, puis des entrées quelconques jusqu'à
+     * repasser sous 90 %.
+     */
+    private void evict() {
+        long now = System.currentTimeMillis();
+        int target = maxEntries * 9 / 10;
+
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().expiresAt() <= now) {
+                it.remove();
+                evictions.increment();
+            }
+        }
+
+        it = entries.values().iterator();
+        while (entries.size() > target && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+        }
+    }
+}
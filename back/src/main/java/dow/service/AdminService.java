@@ -1,12 +1,21 @@
 package dow.service;
 
+import dow.game.MatchEngine;
+import dow.model.AuthorizationChangedEvent;
+import dow.model.dto.MatchEngineStats;
 import dow.model.dto.PlayerRolesDto;
+import dow.model.dto.StompSessionStats;
+import dow.model.dto.TokenCacheStats;
 import dow.model.entities.Player;
 import dow.model.entities.Role;
 import dow.repository.PlayerRepository;
 import dow.repository.RoleRepository;
+import dow.security.JwtChannelInterceptor;
+import dow.security.VerifiedTokenCache;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -21,10 +30,20 @@ public class AdminService {
 
     private final PlayerRepository playerRepository;
     private final RoleRepository roleRepository;
-
-    public AdminService(PlayerRepository playerRepository, RoleRepository roleRepository) {
+    private final ApplicationEventPublisher eventPublisher;
+    private final VerifiedTokenCache tokenCache;
+    private final JwtChannelInterceptor jwtChannelInterceptor;
+    private final MatchEngine matchEngine;
+
+    public AdminService(PlayerRepository playerRepository, RoleRepository roleRepository,
+                        ApplicationEventPublisher eventPublisher, VerifiedTokenCache tokenCache,
+                        JwtChannelInterceptor jwtChannelInterceptor, MatchEngine matchEngine) {
         this.playerRepository = playerRepository;
         this.roleRepository = roleRepository;
+        this.eventPublisher = eventPublisher;
+        this.tokenCache = tokenCache;
+        this.jwtChannelInterceptor = jwtChannelInterceptor;
+        this.matchEngine = matchEngine;
     }
 
     @Transactional(readOnly = true)
@@ -51,6 +70,7 @@ public class AdminService {
         player.setRoles(roles);
 
         player = playerRepository.save(player);
+        eventPublisher.publishEvent(AuthorizationChangedEvent.player(player.getId()));
 
         Player updatedPlayer = playerRepository.findByIdWithRoles(player.getId())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Erreur lors de la récupération"));
@@ -58,6 +78,21 @@ public class AdminService {
         return toDto(updatedPlayer);
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TokenCacheStats getTokenCacheStats() {
+        return tokenCache.stats();
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public StompSessionStats getStompSessionStats() {
+        return jwtChannelInterceptor.stats();
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public MatchEngineStats getMatchEngineStats() {
+        return matchEngine.stats();
+    }
+
     private PlayerRolesDto toDto(Player player) {
         List<String> roleNames = player.getRoles().stream()
                 .map(Role::getName)
@@ -2,6 +2,7 @@ package dow.service;
 
 import dow.exception.InvalidCredentialsException;
 import dow.exception.UsernameAlreadyTakenException;
+import dow.model.CustomUserDetails;
 import dow.model.dto.ConnexionDto;
 import dow.model.dto.LoginResponseDto;
 import dow.model.entities.Player;
@@ -14,7 +15,6 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.LinkedHashSet;
@@ -27,21 +27,21 @@ public class AuthService {
     private final RoleRepository roleRepository;
     private final AuthenticationManager authenticationManager;
     private final JwtUtils jwtUtils;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
 
-    public AuthService(PlayerRepository playerRepository, RoleRepository roleRepository, AuthenticationManager authenticationManager, JwtUtils jwtUtils, BCryptPasswordEncoder passwordEncoder) {
+    public AuthService(PlayerRepository playerRepository, RoleRepository roleRepository, AuthenticationManager authenticationManager, JwtUtils jwtUtils, PasswordHashingService passwordHashingService) {
         this.playerRepository = playerRepository;
         this.roleRepository = roleRepository;
         this.authenticationManager = authenticationManager;
         this.jwtUtils = jwtUtils;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
     }
 
     public Player register(ConnexionDto connexionDto) {
         if (playerRepository.findByPseudo(connexionDto.getPseudo()).isPresent()) {
             throw new UsernameAlreadyTakenException("Le pseudo est déjà utilisé");
         }
-        String hashedPassword = passwordEncoder.encode(connexionDto.getPassword());
+        String hashedPassword = passwordHashingService.encode(connexionDto.getPassword());
         Player player = new Player(null, connexionDto.getPseudo(), hashedPassword);
         Role playerRole = roleRepository.findByName("PLAYER").orElseGet(() -> roleRepository.save(new Role(null, "PLAYER")));
         Set<Role> roles = new LinkedHashSet<>();
@@ -52,16 +52,34 @@ public class AuthService {
 
     public LoginResponseDto login(ConnexionDto connexionDto) {
         try {
-            Authentication authentication = authenticationManager.authenticate(
+            Authentication authentication = passwordHashingService.run(() -> authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(connexionDto.getPseudo(), connexionDto.getPassword())
-            );
+            ));
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
-            String jwt = jwtUtils.generateJwtToken(authentication);
+            CustomUserDetails user = (CustomUserDetails) authentication.getPrincipal();
 
-            return new LoginResponseDto(jwt, connexionDto.getPseudo());
+            return new LoginResponseDto(jwtUtils.generateJwtToken(user), jwtUtils.generateRefreshToken(user), user.getUsername());
         } catch (BadCredentialsException e) {
             throw new InvalidCredentialsException("Pseudo ou mot de passe incorrect.");
         }
     }
+
+    /**
+     * Nouveau couple de jetons ; les rôles sont relus en base, ce qui propage les changements faits par
+     * un administrateur au plus tard à l'expiration du jeton d'accès.
+     */
+    public LoginResponseDto refresh(String refreshToken) {
+        CustomUserDetails user = jwtUtils.getUserFromRefreshToken(refreshToken);
+        return new LoginResponseDto(jwtUtils.generateJwtToken(user), jwtUtils.generateRefreshToken(user), user.getUsername());
+    }
+
+    public void logout(String token, String refreshToken) {
+        if (token != null) {
+            jwtUtils.revoke(token);
+        }
+        if (refreshToken != null) {
+            jwtUtils.revoke(refreshToken);
+        }
+    }
 }
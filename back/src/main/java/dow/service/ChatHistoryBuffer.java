@@ -0,0 +1,100 @@
+package dow.service;
+
+import dow.model.ChatRoom;
+import dow.model.dto.MessageDto;
+import dow.repository.MessageRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Derniers messages du salon global en mémoire, dans un anneau sans verrou : un écrivain réserve un numéro de
+ * séquence puis remplit la case correspondante ; un lecteur ignore les cases pas encore remplies ou
+ * déjà écrasées. Chargé depuis la base au démarrage.
+ */
+@Service
+public class ChatHistoryBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatHistoryBuffer.class);
+
+    private record Entry(long sequence, MessageDto message) {
+    }
+
+    private static final Comparator<MessageDto> NEWEST_FIRST = Comparator
+            .comparing(MessageDto::getTimestamp)
+            .thenComparing(MessageDto::getId)
+            .reversed();
+
+    private final MessageRepository messageRepository;
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private volatile boolean warmed;
+
+    public ChatHistoryBuffer(MessageRepository messageRepository,
+                             @Value("${chat.history.buffer-size:256}") int size) {
+        int capacity = Integer.highestOneBit(Math.max(2, size - 1)) << 1;
+        this.messageRepository = messageRepository;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    @PostConstruct
+    public void warm() {
+        try {
+            List<MessageDto> latest = messageRepository.findLatestMessages(ChatRoom.GLOBAL_ID, Limit.of(capacity()));
+            for (int i = latest.size() - 1; i >= 0; i--) {
+                append(latest.get(i));
+            }
+            warmed = true;
+            log.info("Historique du chat chargé: {} messages", latest.size());
+        } catch (DataAccessException e) {
+            log.warn("Historique du chat non chargé, lecture en base: {}", e.getMessage());
+        }
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Vrai si l'anneau contient bien les derniers messages, donc peut remplacer la base pour la première page.
+     */
+    public boolean isWarmed() {
+        return warmed;
+    }
+
+    public void append(MessageDto message) {
+        long sequence = head.getAndIncrement();
+        slots.set((int) (sequence & mask), new Entry(sequence, message));
+    }
+
+    /**
+     * Jusqu'à limit messages, du plus récent au plus ancien.
+     */
+    public List<MessageDto> latest(int limit) {
+        long end = head.get();
+        long start = Math.max(0, end - Math.min(limit, capacity()));
+        List<MessageDto> messages = new ArrayList<>((int) (end - start));
+
+        for (long sequence = end - 1; sequence >= start; sequence--) {
+            Entry entry = slots.get((int) (sequence & mask));
+            if (entry != null && entry.sequence() == sequence) {
+                messages.add(entry.message());
+            }
+        }
+
+        messages.sort(NEWEST_FIRST);
+        return messages;
+    }
+}
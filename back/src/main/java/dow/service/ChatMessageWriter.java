@@ -0,0 +1,144 @@
+package dow.service;
+
+import dow.model.ChatMessage;
+import dow.repository.MessageJdbcRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Persistance différée des messages de chat : un thread dédié vide la file par lots (batch JDBC) toutes
+ * les quelques millisecondes ou dès qu'un lot est plein. La file est bornée : quand elle est pleine,
+ * l'envoi attend un peu puis est refusé (503). À l'arrêt, la file est vidée avant de rendre la main.
+ */
+@Service
+public class ChatMessageWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatMessageWriter.class);
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final MessageJdbcRepository messageJdbcRepository;
+    private final BlockingQueue<ChatMessage> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutMs;
+    private final long shutdownTimeoutMs;
+    private final LongAdder idConflicts = new LongAdder();
+    private volatile boolean running;
+    private Thread writer;
+
+    public ChatMessageWriter(MessageJdbcRepository messageJdbcRepository,
+                             @Value("${chat.write-behind.queue-capacity:10000}") int queueCapacity,
+                             @Value("${chat.write-behind.batch-size:200}") int batchSize,
+                             @Value("${chat.write-behind.flush-interval-ms:5}") long flushIntervalMs,
+                             @Value("${chat.write-behind.offer-timeout-ms:50}") long offerTimeoutMs,
+                             @Value("${chat.write-behind.shutdown-timeout-ms:10000}") long shutdownTimeoutMs) {
+        this.messageJdbcRepository = messageJdbcRepository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = Thread.ofPlatform().name("chat-writer").start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(shutdownTimeoutMs);
+        if (!queue.isEmpty()) {
+            log.error("{} messages de chat non persistés à l'arrêt", queue.size());
+        }
+    }
+
+    public void enqueue(ChatMessage message) {
+        if (!running) {
+            throw new RejectedExecutionException("Chat en cours d'arrêt");
+        }
+
+        try {
+            if (!queue.offer(message, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException("File d'écriture du chat pleine");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Envoi du message interrompu", e);
+        }
+    }
+
+    private void run() {
+        List<ChatMessage> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                ChatMessage first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                } else if (batch.isEmpty()) {
+                    continue;
+                }
+
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    ChatMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                write(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                log.warn("Thread d'écriture du chat interrompu, {} messages en attente", batch.size());
+            } catch (RuntimeException e) {
+                // le thread doit survivre : le lot en échec est abandonné
+                log.error("Lot de {} messages de chat abandonné: {}", batch.size(), e.getMessage(), e);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<ChatMessage> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                int conflicts = messageJdbcRepository.insertMessages(batch);
+                if (conflicts > 0) {
+                    idConflicts.add(conflicts);
+                    log.error("{} messages de chat non insérés : id déjà présent en base ({} depuis le démarrage, "
+                            + "chat.node-id partagé entre répliques ?)", conflicts, idConflicts.sum());
+                }
+                return;
+            } catch (DataAccessException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    log.error("Écriture de {} messages de chat abandonnée: {}", batch.size(), e.getMessage(), e);
+                    return;
+                }
+                log.warn("Écriture de {} messages de chat échouée (essai {}): {}", batch.size(), attempt, e.getMessage());
+                Thread.sleep(100L * attempt);
+            }
+        }
+    }
+}
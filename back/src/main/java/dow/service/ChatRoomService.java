@@ -0,0 +1,143 @@
+package dow.service;
+
+import dow.model.ChatRoom;
+import dow.model.enumeration.ChatRoomType;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Droits d'accès aux salons : le global est ouvert à tous, un salon privé à ses deux participants, un salon
+ * de match aux joueurs qui y ont été ajoutés par le moteur de match.
+ * <p>
+ * Les abonnements STOMP aux salons de match sont suivis : quand un joueur en sort ou que le salon est fermé,
+ * ses abonnements sont retirés du broker (UNSUBSCRIBE côté serveur) et il cesse de recevoir les messages.
+ * Le contrôle d'accès et l'enregistrement d'un abonnement sont atomiques vis-à-vis de ces retraits.
+ */
+@Service
+public class ChatRoomService {
+
+    private record Subscription(String sessionId, String subscriptionId, long playerId) {
+    }
+
+    private final MessageChannel brokerChannel;
+    private final Map<String, Set<Long>> members = new ConcurrentHashMap<>();
+    // salon → abonnements en cours, par "session/abonnement"
+    private final Map<String, Map<String, Subscription>> subscriptions = new ConcurrentHashMap<>();
+    // session → salons suivis, pour le désabonnement et la déconnexion
+    private final Map<String, Set<String>> roomsBySession = new ConcurrentHashMap<>();
+
+    // brokerChannel en @Lazy : la configuration STOMP dépend de l'intercepteur, qui dépend de ce service
+    public ChatRoomService(@Lazy @Qualifier("brokerChannel") MessageChannel brokerChannel) {
+        this.brokerChannel = brokerChannel;
+    }
+
+    public void addMember(ChatRoom room, long playerId) {
+        members.computeIfAbsent(room.id(), id -> ConcurrentHashMap.newKeySet()).add(playerId);
+    }
+
+    public synchronized void removeMember(ChatRoom room, long playerId) {
+        members.computeIfPresent(room.id(), (id, players) -> {
+            players.remove(playerId);
+            return players.isEmpty() ? null : players;
+        });
+
+        Map<String, Subscription> roomSubscriptions = subscriptions.get(room.id());
+        if (roomSubscriptions == null) {
+            return;
+        }
+        for (Iterator<Subscription> it = roomSubscriptions.values().iterator(); it.hasNext(); ) {
+            Subscription subscription = it.next();
+            if (subscription.playerId() == playerId) {
+                it.remove();
+                unsubscribe(subscription);
+            }
+        }
+    }
+
+    public synchronized void closeRoom(ChatRoom room) {
+        members.remove(room.id());
+        Map<String, Subscription> roomSubscriptions = subscriptions.remove(room.id());
+        if (roomSubscriptions != null) {
+            roomSubscriptions.values().forEach(this::unsubscribe);
+        }
+    }
+
+    /**
+     * Contrôle d'un SUBSCRIBE : renvoie false si le joueur n'a pas accès au salon, sinon enregistre
+     * l'abonnement quand le salon peut lui être retiré plus tard.
+     */
+    public synchronized boolean subscribe(ChatRoom room, Long playerId, String sessionId, String subscriptionId) {
+        if (!canAccess(room, playerId)) {
+            return false;
+        }
+        if (room.type() == ChatRoomType.MATCH && sessionId != null && subscriptionId != null) {
+            subscriptions.computeIfAbsent(room.id(), id -> new ConcurrentHashMap<>())
+                    .put(key(sessionId, subscriptionId), new Subscription(sessionId, subscriptionId, playerId));
+            roomsBySession.computeIfAbsent(sessionId, id -> ConcurrentHashMap.newKeySet()).add(room.id());
+        }
+        return true;
+    }
+
+    public void unsubscribed(String sessionId, String subscriptionId) {
+        Set<String> rooms = sessionId != null ? roomsBySession.get(sessionId) : null;
+        if (rooms == null || subscriptionId == null) {
+            return;
+        }
+        String key = key(sessionId, subscriptionId);
+        for (String roomId : rooms) {
+            subscriptions.computeIfPresent(roomId, (id, roomSubscriptions) -> {
+                roomSubscriptions.remove(key);
+                return roomSubscriptions.isEmpty() ? null : roomSubscriptions;
+            });
+        }
+    }
+
+    public void disconnected(String sessionId) {
+        Set<String> rooms = sessionId != null ? roomsBySession.remove(sessionId) : null;
+        if (rooms == null) {
+            return;
+        }
+        for (String roomId : rooms) {
+            subscriptions.computeIfPresent(roomId, (id, roomSubscriptions) -> {
+                roomSubscriptions.values().removeIf(subscription -> subscription.sessionId().equals(sessionId));
+                return roomSubscriptions.isEmpty() ? null : roomSubscriptions;
+            });
+        }
+    }
+
+    public boolean canAccess(ChatRoom room, Long playerId) {
+        return switch (room.type()) {
+            case GLOBAL -> true;
+            case DIRECT -> playerId != null && room.isParticipant(playerId);
+            case MATCH -> playerId != null && members.getOrDefault(room.id(), Set.of()).contains(playerId);
+        };
+    }
+
+    public void checkAccess(ChatRoom room, Long playerId) {
+        if (!canAccess(room, playerId)) {
+            throw new AccessDeniedException("Accès refusé au salon " + room.id());
+        }
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.UNSUBSCRIBE);
+        accessor.setSessionId(subscription.sessionId());
+        accessor.setSubscriptionId(subscription.subscriptionId());
+        brokerChannel.send(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()));
+    }
+
+    private static String key(String sessionId, String subscriptionId) {
+        return sessionId + "/" + subscriptionId;
+    }
+}
@@ -1,52 +1,158 @@
 package dow.service;
 
+import dow.model.ChatMessage;
+import dow.model.ChatRoom;
+import dow.model.enumeration.ChatRoomType;
 import dow.model.dto.MessageDto;
-import dow.model.entities.Message;
 import dow.model.entities.Player;
 import dow.repository.MessageRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.List;
 
 @Service
 public class MessageService {
 
+    private static final int MAX_SLICE_SIZE = 100;
+    private static final String REPLAY_HEADER = "replay";
+    private static final ZoneId PARIS_ZONE = ZoneId.of("Europe/Paris");
+
     private final MessageRepository messageRepository;
     private final SimpMessagingTemplate messagingTemplate;
     private final UtilsService utilsService;
+    private final ChatMessageWriter chatMessageWriter;
+    private final SnowflakeIdGenerator idGenerator;
+    private final ChatHistoryBuffer chatHistoryBuffer;
+    private final ChatRoomService chatRoomService;
+    private final SimpMessagingTemplate sessionTemplate;
+    private final int maxReplay;
 
-    public MessageService(MessageRepository messageRepository, SimpMessagingTemplate messagingTemplate, UtilsService utilsService) {
+    public MessageService(MessageRepository messageRepository,
+                          SimpMessagingTemplate messagingTemplate,
+                          UtilsService utilsService,
+                          ChatMessageWriter chatMessageWriter,
+                          SnowflakeIdGenerator idGenerator,
+                          ChatHistoryBuffer chatHistoryBuffer,
+                          ChatRoomService chatRoomService,
+                          @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel,
+                          @Value("${chat.history.max-replay:100}") int maxReplay) {
         this.messageRepository = messageRepository;
         this.messagingTemplate = messagingTemplate;
         this.utilsService = utilsService;
+        this.chatMessageWriter = chatMessageWriter;
+        this.idGenerator = idGenerator;
+        this.chatHistoryBuffer = chatHistoryBuffer;
+        this.chatRoomService = chatRoomService;
+        this.sessionTemplate = new SimpMessagingTemplate(clientOutboundChannel);
+        this.sessionTemplate.setMessageConverter(messagingTemplate.getMessageConverter());
+        this.maxReplay = maxReplay;
     }
 
-    public void sendMessage(String message) {
+    public void sendMessage(String message, String roomId) {
         if (message == null || message.trim().isEmpty()) {
             throw new IllegalArgumentException("Le message ne peut pas être vide ou ne contenir que des espaces.");
         }
 
-        Player player = utilsService.getPlayer();
+        Player player = utilsService.getCurrentPlayer();
+        ChatRoom room = ChatRoom.parse(roomId);
+        chatRoomService.checkAccess(room, player.getId());
 
-        Message msg = new Message();
-        msg.setPlayer(player);
-        msg.setContent(message);
-        ZoneId parisZone = ZoneId.of("Europe/Paris");
-        msg.setTimestamp(LocalDateTime.now(parisZone));
-        msg = messageRepository.save(msg);
+        ChatMessage msg = new ChatMessage(
+                idGenerator.nextId(),
+                room.id(),
+                player.getId(),
+                player.getPseudo(),
+                message,
+                LocalDateTime.now(PARIS_ZONE)
+        );
+        chatMessageWriter.enqueue(msg);
 
-        messagingTemplate.convertAndSend("/topic/chat",
-                new MessageDto(msg.getId(), player.getPseudo(), msg.getContent(), msg.getTimestamp()));
+        MessageDto dto = msg.toDto();
+        if (room.type() == ChatRoomType.GLOBAL) {
+            chatHistoryBuffer.append(dto);
+        }
+        messagingTemplate.convertAndSend(room.topic(), dto);
     }
 
     public Page<MessageDto> getMessages(int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("timestamp").descending());
         return messageRepository.findAllMessages(pageable);
     }
-}
\ No newline at end of file
+
+    /**
+     * Messages d'un salon plus anciens que le curseur (timestamp, id), du plus récent au plus ancien ; sans
+     * curseur, les derniers messages. Parcourt l'index (room_id, timestamp DESC, id DESC) : coût constant
+     * quelle que soit la profondeur. La première page du salon global vient de l'anneau en mémoire.
+     */
+    public Slice<MessageDto> getMessagesBefore(String roomId, LocalDateTime before, Long beforeId, int size) {
+        ChatRoom room = ChatRoom.parse(roomId);
+        chatRoomService.checkAccess(room, utilsService.getCurrentPlayer().getId());
+        int limit = Math.clamp(size, 1, MAX_SLICE_SIZE);
+
+        if ((before == null || beforeId == null)
+                && room.type() == ChatRoomType.GLOBAL
+                && chatHistoryBuffer.isWarmed()
+                && limit < chatHistoryBuffer.capacity()) {
+            List<MessageDto> latest = chatHistoryBuffer.latest(limit + 1);
+            boolean hasNext = latest.size() > limit;
+            return new SliceImpl<>(hasNext ? latest.subList(0, limit) : latest, PageRequest.ofSize(limit), hasNext);
+        }
+
+        List<MessageDto> messages = before == null || beforeId == null
+                ? messageRepository.findLatestMessages(room.id(), Limit.of(limit + 1))
+                : messageRepository.findMessagesBefore(room.id(), before, beforeId, Limit.of(limit + 1));
+
+        boolean hasNext = messages.size() > limit;
+        return new SliceImpl<>(hasNext ? messages.subList(0, limit) : messages, PageRequest.ofSize(limit), hasNext);
+    }
+
+    /**
+     * Un client qui s'abonne au salon global (/topic/chat) avec l'en-tête replay: n reçoit d'abord, sur cet
+     * abonnement seulement, les n derniers messages de l'anneau (du plus ancien au plus récent), sans passer
+     * par la base.
+     */
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor stomp = StompHeaderAccessor.wrap(event.getMessage());
+        String replay = stomp.getFirstNativeHeader(REPLAY_HEADER);
+        if (!ChatRoom.TOPIC.equals(stomp.getDestination()) || replay == null) {
+            return;
+        }
+
+        int count;
+        try {
+            count = Math.clamp(Integer.parseInt(replay), 0, maxReplay);
+        } catch (NumberFormatException e) {
+            return;
+        }
+
+        List<MessageDto> latest = chatHistoryBuffer.latest(count);
+        for (int i = latest.size() - 1; i >= 0; i--) {
+            SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            headers.setSessionId(stomp.getSessionId());
+            headers.setSubscriptionId(stomp.getSubscriptionId());
+            headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+            headers.setLeaveMutable(true);
+            sessionTemplate.convertAndSend(ChatRoom.TOPIC, latest.get(i), headers.getMessageHeaders());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package dow.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Exécute sur passwordHashingPool tout ce qui hache un mot de passe (inscription, authentification). Une
+ * tâche refusée par la file pleine ou non terminée dans le délai donne une RejectedExecutionException,
+ * traduite en 503.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final ExecutorService passwordHashingPool;
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final long timeoutMs;
+
+    public PasswordHashingService(@Qualifier("passwordHashingPool") ExecutorService passwordHashingPool,
+                                  BCryptPasswordEncoder passwordEncoder,
+                                  @Value("${security.password.timeout-ms:5000}") long timeoutMs) {
+        this.passwordHashingPool = passwordHashingPool;
+        this.passwordEncoder = passwordEncoder;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public String encode(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public <T> T run(Supplier<T> task) {
+        Future<T> future = passwordHashingPool.submit(task::get);
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new RejectedExecutionException("Hachage du mot de passe trop long", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Hachage du mot de passe interrompu", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
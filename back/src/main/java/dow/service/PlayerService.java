@@ -4,13 +4,19 @@ import dow.model.CustomUserDetails;
 import dow.model.entities.Player;
 import dow.repository.PlayerRepository;
 import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class PlayerService implements UserDetailsService {
+public class PlayerService implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final Logger log = LoggerFactory.getLogger(PlayerService.class);
 
     private final PlayerRepository playerRepository;
 
@@ -26,4 +32,19 @@ public class PlayerService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé avec le pseudo: " + pseudo));
         return new CustomUserDetails(player);
     }
+
+    /**
+     * Appelé par l'authentification quand le hash stocké a un coût BCrypt inférieur au coût configuré : le
+     * mot de passe est re-haché à la connexion, sans action du joueur.
+     */
+    @Override
+    @Transactional
+    @NonNull
+    public UserDetails updatePassword(@NonNull UserDetails user, String newPassword) {
+        Player player = playerRepository.findWithRolesByPseudo(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé avec le pseudo: " + user.getUsername()));
+        player.setPassword(newPassword);
+        log.info("Mot de passe re-haché pour {}", player.getPseudo());
+        return new CustomUserDetails(playerRepository.save(player));
+    }
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package dow.service;
 
+import dow.model.AuthorizationChangedEvent;
 import dow.model.dto.RoleDto;
 import dow.model.entities.Role;
 import dow.repository.RoleRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,9 +17,11 @@ import java.util.List;
 public class RoleService {
 
     private final RoleRepository roleRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public RoleService(RoleRepository roleRepository) {
+    public RoleService(RoleRepository roleRepository, ApplicationEventPublisher eventPublisher) {
         this.roleRepository = roleRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(readOnly = true)
@@ -51,8 +55,12 @@ public class RoleService {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Le nom de rôle est déjà pris");
         }
 
+        boolean renamed = !existing.getName().equals(trimmedName);
         existing.setName(trimmedName);
         Role saved = roleRepository.save(existing);
+        if (renamed) {
+            eventPublisher.publishEvent(AuthorizationChangedEvent.all());
+        }
         return toDto(saved);
     }
 
@@ -61,6 +69,7 @@ public class RoleService {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Rôle introuvable");
         }
         roleRepository.deleteById(id);
+        eventPublisher.publishEvent(AuthorizationChangedEvent.all());
     }
 
     private void validateRoleDto(RoleDto dto) {
@@ -0,0 +1,59 @@
+package dow.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Identifiants croissants de 53 bits, sûrs côté JavaScript : 41 bits de millisecondes depuis 2025,
+ * 5 bits de nœud, 7 bits de séquence (128 ids par milliseconde et par nœud). Si la séquence déborde ou
+ * que l'horloge recule, on emprunte la milliseconde suivante plutôt que d'attendre.
+ * <p>
+ * Le nœud (chat.node-id) doit être distinct sur chaque réplique : il n'est facultatif, et vaut 0, que
+ * pour une instance seule, sans sprite.catalog.peers.
+ */
+@Component
+public class SnowflakeIdGenerator {
+
+    private static final long EPOCH = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 5;
+    private static final int SEQUENCE_BITS = 7;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long node;
+    private long lastMillis = -1;
+    private long sequence;
+
+    public SnowflakeIdGenerator(@Value("${chat.node-id:-1}") long node,
+                                @Value("${sprite.catalog.peers:}") String peers) {
+        if (node < 0) {
+            if (!peers.isBlank()) {
+                throw new IllegalStateException("chat.node-id doit être défini, distinct pour chaque réplique, "
+                        + "quand sprite.catalog.peers est renseigné");
+            }
+            node = 0;
+        }
+        if (node > MAX_NODE) {
+            throw new IllegalArgumentException("chat.node-id doit être entre 0 et " + MAX_NODE);
+        }
+        this.node = node;
+    }
+
+    public synchronized long nextId() {
+        long now = System.currentTimeMillis() - EPOCH;
+
+        if (now > lastMillis) {
+            lastMillis = now;
+            sequence = 0;
+        } else {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                lastMillis++;
+            }
+        }
+
+        return (lastMillis << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+    }
+}
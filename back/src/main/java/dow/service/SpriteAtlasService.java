@@ -0,0 +1,406 @@
+package dow.service;
+
+import dow.image.ArgbPixels;
+import dow.image.MaxRectsPacker;
+import dow.image.PngQuantizer;
+import dow.model.SpriteChangedEvent;
+import dow.model.dto.SpriteAtlasDto;
+import dow.model.dto.SpriteInfos;
+import dow.repository.SpriteRepository;
+import dow.storage.SpriteStorage;
+import dow.storage.StorageFiles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.FileSystemUtils;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+public class SpriteAtlasService {
+
+    private static final Logger log = LoggerFactory.getLogger(SpriteAtlasService.class);
+    private static final String INDEX_FILE = "index.json";
+    private static final Pattern SET_NAME = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private final SpriteRepository spriteRepository;
+    private final PngQuantizer pngQuantizer;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService spriteWorkerPool;
+    private final MaxRectsPacker packer;
+    private final SpriteStorage spriteStorage;
+    private final Path storageRoot;
+    private final Path spriteAtlasRoot;
+    private final Path setAtlasRoot;
+    private final Map<Path, CompletableFuture<SpriteAtlasDto>> pending = new ConcurrentHashMap<>();
+
+    public SpriteAtlasService(SpriteRepository spriteRepository,
+                              PngQuantizer pngQuantizer,
+                              ObjectMapper objectMapper,
+                              @Qualifier("spriteWorkerPool") ExecutorService spriteWorkerPool,
+                              SpriteStorage spriteStorage,
+                              @Value("${sprite.storage.root}") String storageRoot,
+                              @Value("${sprite.atlas.max-size:2048}") int maxSize,
+                              @Value("${sprite.atlas.padding:1}") int padding) {
+        this.spriteRepository = spriteRepository;
+        this.pngQuantizer = pngQuantizer;
+        this.objectMapper = objectMapper;
+        this.spriteWorkerPool = spriteWorkerPool;
+        this.packer = new MaxRectsPacker(maxSize, padding);
+        this.spriteStorage = spriteStorage;
+        this.storageRoot = Paths.get(storageRoot).toAbsolutePath().normalize();
+        this.spriteAtlasRoot = this.storageRoot.resolve(".atlas").resolve("sprite");
+        this.setAtlasRoot = this.storageRoot.resolve(".atlas").resolve("set");
+    }
+
+    public SpriteAtlasDto getSpriteAtlas(String spriteName) {
+        Path dir = atlasDir(spriteAtlasRoot, spriteName);
+        SpriteAtlasDto atlas = readIndex(dir);
+
+        if (atlas != null) {
+            return atlas;
+        }
+
+        return submit(dir, () -> build(dir, spriteName, List.of(spriteName))).join();
+    }
+
+    public SpriteAtlasDto getSetAtlas(String setName) {
+        return readIndex(setDir(setName));
+    }
+
+    public SpriteAtlasDto buildSetAtlas(String setName, List<String> spriteNames) {
+        Path dir = setDir(setName);
+        List<String> members = spriteNames.stream().distinct().sorted().toList();
+
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("Aucun sprite pour l'atlas '" + setName + "'");
+        }
+
+        return submit(dir, () -> build(dir, setName, members)).join();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSpriteChanged(SpriteChangedEvent event) {
+        for (Path dir : affectedAtlases(event)) {
+            submit(dir, () -> apply(dir, event));
+        }
+    }
+
+    private List<Path> affectedAtlases(SpriteChangedEvent event) {
+        List<Path> dirs = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        names.add(event.spriteName());
+        if (event.previousName() != null) {
+            names.add(event.previousName());
+        }
+
+        for (String name : names) {
+            Path dir = spriteAtlasRoot.resolve(name).normalize();
+            if (dir.getParent().equals(spriteAtlasRoot) && Files.exists(dir.resolve(INDEX_FILE))) {
+                dirs.add(dir);
+            }
+        }
+
+        if (Files.isDirectory(setAtlasRoot)) {
+            try (DirectoryStream<Path> sets = Files.newDirectoryStream(setAtlasRoot)) {
+                for (Path dir : sets) {
+                    SpriteAtlasDto atlas = readIndex(dir);
+                    if (atlas != null && atlas.getSprites().stream().anyMatch(names::contains)) {
+                        dirs.add(dir);
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("Lecture des atlas impossible: {}", e.getMessage());
+            }
+        }
+
+        return dirs;
+    }
+
+    private SpriteAtlasDto apply(Path dir, SpriteChangedEvent event) throws IOException {
+        SpriteAtlasDto atlas = readIndex(dir);
+        if (atlas == null) {
+            return null;
+        }
+
+        boolean spriteAtlas = dir.getParent().equals(spriteAtlasRoot);
+        List<String> members = new ArrayList<>(atlas.getSprites());
+
+        switch (event.type()) {
+            case METADATA -> {
+                return updateMetadata(dir, atlas, event.spriteName());
+            }
+            case FLIPPED -> {
+                return reblit(dir, atlas, event.animationId());
+            }
+            case DELETED -> {
+                members.remove(event.spriteName());
+                if (spriteAtlas || members.isEmpty()) {
+                    deleteAtlas(dir);
+                    return null;
+                }
+            }
+            case RENAMED -> {
+                if (spriteAtlas) {
+                    deleteAtlas(dir);
+                    return null;
+                }
+                members.replaceAll(name -> name.equals(event.previousName()) ? event.spriteName() : name);
+            }
+            default -> {
+            }
+        }
+
+        return build(dir, atlas.getName(), members);
+    }
+
+    private SpriteAtlasDto build(Path dir, String name, List<String> spriteNames) throws IOException {
+        List<SpriteInfos> infos = spriteRepository.findAllAnimationsBySpriteNameIn(spriteNames);
+        if (infos.isEmpty()) {
+            return null;
+        }
+
+        SpriteAtlasDto atlas = new SpriteAtlasDto(name, spriteNames);
+        List<ArgbPixels> sheets = new ArrayList<>();
+        List<int[]> frameRefs = new ArrayList<>();
+        List<MaxRectsPacker.Item> items = new ArrayList<>();
+
+        for (SpriteInfos info : infos) {
+            ArgbPixels sheet = readSheet(info);
+            if (sheet == null) {
+                continue;
+            }
+
+            int fw = sheet.width() / info.getFrames();
+            int animation = atlas.getAnimations().size();
+            atlas.getAnimations().add(new SpriteAtlasDto.AnimationEntry(info, fw, sheet.height()));
+            sheets.add(sheet);
+
+            for (int f = 0; f < info.getFrames(); f++) {
+                items.add(new MaxRectsPacker.Item(frameRefs.size(), fw, sheet.height()));
+                frameRefs.add(new int[]{animation, f});
+            }
+        }
+
+        MaxRectsPacker.Result result = packer.pack(items);
+        Map<Integer, ArgbPixels> pages = new HashMap<>();
+        for (int i = 0; i < result.pages().size(); i++) {
+            MaxRectsPacker.Page page = result.pages().get(i);
+            pages.put(i, ArgbPixels.create(page.width(), page.height()));
+            atlas.getPages().add(new SpriteAtlasDto.Page(null, page.width(), page.height()));
+        }
+
+        for (MaxRectsPacker.Placement p : result.placements()) {
+            int[] ref = frameRefs.get(p.id());
+            SpriteAtlasDto.AnimationEntry entry = atlas.getAnimations().get(ref[0]);
+            entry.getFrames()[ref[1]] = new int[]{p.page(), p.x(), p.y()};
+            blit(sheets.get(ref[0]), ref[1] * p.width(), pages.get(p.page()), p.x(), p.y(), p.width(), p.height());
+        }
+
+        writeAtlas(dir, atlas, pages);
+        log.info("Atlas '{}' construit: {} frames sur {} pages", name, items.size(), pages.size());
+        return atlas;
+    }
+
+    private SpriteAtlasDto reblit(Path dir, SpriteAtlasDto atlas, Long animationId) throws IOException {
+        SpriteAtlasDto.AnimationEntry entry = atlas.getAnimations().stream()
+                .filter(a -> a.getAnimationId().equals(animationId))
+                .findFirst()
+                .orElse(null);
+        SpriteInfos info = spriteRepository.findSpriteInfosByAnimationId(animationId);
+
+        if (entry == null || info == null) {
+            return build(dir, atlas.getName(), atlas.getSprites());
+        }
+
+        ArgbPixels sheet = readSheet(info);
+        if (sheet == null
+                || sheet.width() / info.getFrames() != entry.getFrameWidth()
+                || sheet.height() != entry.getFrameHeight()
+                || info.getFrames() != entry.getFrames().length) {
+            return build(dir, atlas.getName(), atlas.getSprites());
+        }
+
+        Map<Integer, ArgbPixels> pages = new HashMap<>();
+        for (int f = 0; f < entry.getFrames().length; f++) {
+            int[] slot = entry.getFrames()[f];
+            ArgbPixels page = pages.get(slot[0]);
+            if (page == null) {
+                page = readPage(atlas.getPages().get(slot[0]));
+                pages.put(slot[0], page);
+            }
+            blit(sheet, f * entry.getFrameWidth(), page, slot[1], slot[2], entry.getFrameWidth(), entry.getFrameHeight());
+        }
+
+        writeAtlas(dir, atlas, pages);
+        return atlas;
+    }
+
+    private SpriteAtlasDto updateMetadata(Path dir, SpriteAtlasDto atlas, String spriteName) throws IOException {
+        Map<Long, SpriteInfos> infos = new HashMap<>();
+        for (SpriteInfos info : spriteRepository.findAllAnimationsBySpriteName(spriteName)) {
+            infos.put(info.getAnimationId(), info);
+        }
+
+        for (SpriteAtlasDto.AnimationEntry entry : atlas.getAnimations()) {
+            SpriteInfos info = infos.get(entry.getAnimationId());
+            if (info != null) {
+                entry.applyMetadata(info);
+            }
+        }
+
+        writeAtlas(dir, atlas, Map.of());
+        return atlas;
+    }
+
+    private static void blit(ArgbPixels src, int srcX, ArgbPixels dst, int dstX, int dstY, int width, int height) {
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(src.data(), y * src.width() + srcX, dst.data(), (dstY + y) * dst.width() + dstX, width);
+        }
+    }
+
+    /**
+     * Les pages modifiées sont écrites sous un nouveau nom avant l'index, puis les anciennes sont supprimées :
+     * un client ne voit jamais un index pointant vers une page incomplète.
+     */
+    private void writeAtlas(Path dir, SpriteAtlasDto atlas, Map<Integer, ArgbPixels> pages) throws IOException {
+        Files.createDirectories(dir);
+        String generation = Long.toString(System.currentTimeMillis(), 36);
+
+        for (Map.Entry<Integer, ArgbPixels> page : pages.entrySet()) {
+            Path file = dir.resolve(page.getKey() + "-" + generation + ".png");
+            StorageFiles.writeAtomically(file, pngQuantizer.encode(page.getValue().toImage()));
+            atlas.getPages().get(page.getKey()).setUrl(storageRoot.relativize(file).toString().replace('\\', '/'));
+        }
+
+        byte[] index = objectMapper.writeValueAsBytes(atlas);
+        StorageFiles.writeAtomically(dir.resolve(INDEX_FILE + ".gz"), gzip(index));
+        StorageFiles.writeAtomically(dir.resolve(INDEX_FILE), index);
+
+        Set<String> live = new HashSet<>();
+        live.add(INDEX_FILE);
+        live.add(INDEX_FILE + ".gz");
+        for (SpriteAtlasDto.Page page : atlas.getPages()) {
+            live.add(Paths.get(page.getUrl()).getFileName().toString());
+        }
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                if (!live.contains(file.getFileName().toString())) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gz.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private SpriteAtlasDto readIndex(Path dir) {
+        Path index = dir.resolve(INDEX_FILE);
+        if (Files.notExists(index)) {
+            return null;
+        }
+
+        try {
+            return objectMapper.readValue(Files.readAllBytes(index), SpriteAtlasDto.class);
+        } catch (IOException | JacksonException e) {
+            log.warn("Index d'atlas illisible {}: {}", index, e.getMessage());
+            return null;
+        }
+    }
+
+    private ArgbPixels readSheet(SpriteInfos info) {
+        try {
+            Path source = spriteStorage.fetch(info.getVersion());
+            BufferedImage img = source != null ? ImageIO.read(source.toFile()) : null;
+            if (img == null || info.getFrames() <= 0) {
+                log.warn("Feuille ignorée pour l'atlas: {}", info.getImageUrl());
+                return null;
+            }
+            return ArgbPixels.of(img);
+        } catch (IOException e) {
+            log.warn("Feuille illisible {}: {}", info.getImageUrl(), e.getMessage());
+            return null;
+        }
+    }
+
+    private ArgbPixels readPage(SpriteAtlasDto.Page page) throws IOException {
+        BufferedImage img = ImageIO.read(storageRoot.resolve(page.getUrl()).toFile());
+        if (img == null) {
+            throw new IOException("Page d'atlas illisible: " + page.getUrl());
+        }
+        return ArgbPixels.of(img);
+    }
+
+    private void deleteAtlas(Path dir) throws IOException {
+        FileSystemUtils.deleteRecursively(dir);
+        log.info("Atlas supprimé: {}", dir.getFileName());
+    }
+
+    private CompletableFuture<SpriteAtlasDto> submit(Path dir, AtlasTask task) {
+        CompletableFuture<SpriteAtlasDto> next = pending.compute(dir, (key, previous) ->
+                (previous != null ? previous : CompletableFuture.<SpriteAtlasDto>completedFuture(null))
+                        .handleAsync((result, error) -> run(key, task), spriteWorkerPool));
+        next.whenComplete((result, error) -> pending.remove(dir, next));
+        return next;
+    }
+
+    private SpriteAtlasDto run(Path dir, AtlasTask task) {
+        try {
+            return task.run();
+        } catch (IOException e) {
+            log.error("Reconstruction de l'atlas {} impossible: {}", dir.getFileName(), e.getMessage(), e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path setDir(String setName) {
+        if (setName == null || !SET_NAME.matcher(setName).matches()) {
+            throw new IllegalArgumentException("Nom d'atlas invalide: '" + setName + "'");
+        }
+        return setAtlasRoot.resolve(setName);
+    }
+
+    private Path atlasDir(Path root, String name) {
+        Path dir = root.resolve(name).normalize();
+        if (!dir.getParent().equals(root)) {
+            throw new IllegalArgumentException("Nom de sprite invalide: '" + name + "'");
+        }
+        return dir;
+    }
+
+    @FunctionalInterface
+    private interface AtlasTask {
+        SpriteAtlasDto run() throws IOException;
+    }
+}
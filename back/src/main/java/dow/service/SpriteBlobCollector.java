@@ -0,0 +1,112 @@
+package dow.service;
+
+import dow.repository.AnimationRepository;
+import dow.storage.SpriteStorage;
+import dow.storage.StoredBlob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Supprime les blobs qui ne sont plus référencés par aucune animation. Un blob écrit ou réutilisé
+ * récemment est épargné : l'import qui l'a posé n'a peut-être pas encore validé sa transaction.
+ */
+@Service
+public class SpriteBlobCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(SpriteBlobCollector.class);
+
+    private final AnimationRepository animationRepository;
+    private final SpriteStorage spriteStorage;
+    private final ExecutorService spriteWorkerPool;
+    private final Duration grace;
+
+    public SpriteBlobCollector(AnimationRepository animationRepository,
+                               SpriteStorage spriteStorage,
+                               @Qualifier("spriteWorkerPool") ExecutorService spriteWorkerPool,
+                               @Value("${sprite.storage.gc-grace-minutes:10}") long graceMinutes) {
+        this.animationRepository = animationRepository;
+        this.spriteStorage = spriteStorage;
+        this.spriteWorkerPool = spriteWorkerPool;
+        this.grace = Duration.ofMinutes(graceMinutes);
+    }
+
+    /**
+     * Collecte les blobs donnés après la validation de la transaction courante (ou tout de suite s'il n'y en
+     * a pas). Les hash encore référencés sont simplement ignorés.
+     */
+    public void collectOnCommit(Collection<String> hashes) {
+        Set<String> candidates = new HashSet<>(hashes);
+        candidates.remove(null);
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            spriteWorkerPool.execute(() -> collect(candidates));
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                spriteWorkerPool.execute(() -> collect(candidates));
+            }
+        });
+    }
+
+    private void collect(Set<String> hashes) {
+        Instant limit = Instant.now().minus(grace);
+
+        for (String hash : hashes) {
+            try {
+                Instant lastModified = spriteStorage.lastModified(hash);
+                if (lastModified != null
+                        && lastModified.isBefore(limit)
+                        && animationRepository.countByContentHash(hash) == 0) {
+                    spriteStorage.delete(hash);
+                    log.debug("Blob supprimé: {}", hash);
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("Collecte du blob {} impossible: {}", hash, e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${sprite.storage.gc-initial-delay-ms:300000}",
+            fixedDelayString = "${sprite.storage.gc-interval-ms:3600000}"
+    )
+    public int sweep() {
+        Instant limit = Instant.now().minus(grace);
+        Set<String> referenced = new HashSet<>(animationRepository.findAllContentHashes());
+        int deleted = 0;
+
+        try {
+            for (StoredBlob blob : spriteStorage.list()) {
+                if (!referenced.contains(blob.hash()) && blob.lastModified().isBefore(limit)) {
+                    spriteStorage.delete(blob.hash());
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            log.error("Collecte des blobs interrompue: {}", e.getMessage(), e);
+        }
+
+        if (deleted > 0) {
+            log.info("{} blobs non référencés supprimés", deleted);
+        }
+        return deleted;
+    }
+}
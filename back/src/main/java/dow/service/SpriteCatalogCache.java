@@ -0,0 +1,171 @@
+package dow.service;
+
+import dow.model.SpriteChangedEvent;
+import dow.model.dto.SpriteCatalogChange;
+import dow.model.dto.SpriteInfos;
+import dow.model.enumeration.AnimationType;
+import dow.repository.SpriteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache mémoire du catalogue SpriteInfos, par sprite (LRU borné) et par animation. Il est invalidé après
+ * commit par les SpriteChangedEvent, et chaque invalidation locale est diffusée sur /topic/sprite-catalog
+ * pour les autres nœuds (voir SpriteCatalogPeerRelay) et les clients.
+ * Les SpriteInfos renvoyés sont partagés : ne pas les modifier.
+ */
+@Service
+public class SpriteCatalogCache {
+
+    private static final Logger log = LoggerFactory.getLogger(SpriteCatalogCache.class);
+    public static final String TOPIC = "/topic/sprite-catalog";
+
+    private final SpriteRepository spriteRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final String nodeId;
+    private final Map<String, List<SpriteInfos>> animations;
+    private final Map<Long, String> spriteByAnimation = new ConcurrentHashMap<>();
+    private volatile List<SpriteInfos> idleSprites;
+    private long generation;
+
+    public SpriteCatalogCache(SpriteRepository spriteRepository,
+                              SimpMessagingTemplate messagingTemplate,
+                              @Value("${sprite.catalog.node-id:}") String nodeId,
+                              @Value("${sprite.catalog.cache-max-sprites:1024}") int maxSprites) {
+        this.spriteRepository = spriteRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.animations = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<SpriteInfos>> eldest) {
+                if (size() <= maxSprites) {
+                    return false;
+                }
+                unindex(eldest.getValue());
+                return true;
+            }
+        };
+        log.info("Catalogue des sprites: nœud {}", this.nodeId);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public List<SpriteInfos> findAllIdle() {
+        List<SpriteInfos> cached = idleSprites;
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadedAt = generation();
+        List<SpriteInfos> loaded = List.copyOf(spriteRepository.findAllSpriteInfosByAnimationType(AnimationType.IDLE));
+        synchronized (this) {
+            if (generation == loadedAt) {
+                idleSprites = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    public List<SpriteInfos> findAnimations(String spriteName) {
+        synchronized (this) {
+            List<SpriteInfos> cached = animations.get(spriteName);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        long loadedAt = generation();
+        List<SpriteInfos> loaded = List.copyOf(spriteRepository.findAllAnimationsBySpriteName(spriteName));
+        synchronized (this) {
+            if (generation == loadedAt) {
+                animations.put(spriteName, loaded);
+                for (SpriteInfos info : loaded) {
+                    spriteByAnimation.put(info.getAnimationId(), spriteName);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    public SpriteInfos findByAnimationId(Long animationId) {
+        String spriteName = spriteByAnimation.get(animationId);
+        if (spriteName == null) {
+            SpriteInfos info = spriteRepository.findSpriteInfosByAnimationId(animationId);
+            if (info == null) {
+                return null;
+            }
+            spriteName = info.getName();
+        }
+
+        for (SpriteInfos info : findAnimations(spriteName)) {
+            if (info.getAnimationId().equals(animationId)) {
+                return info;
+            }
+        }
+        return spriteRepository.findSpriteInfosByAnimationId(animationId);
+    }
+
+    public SpriteInfos findByTypeAndName(AnimationType type, String spriteName) {
+        String prefix = spriteName + "/" + type + "/";
+        for (SpriteInfos info : findAnimations(spriteName)) {
+            if (info.getImageUrl().startsWith(prefix)) {
+                return info;
+            }
+        }
+        return null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSpriteChanged(SpriteChangedEvent event) {
+        invalidate(event);
+
+        if (!event.isRemote()) {
+            messagingTemplate.convertAndSend(TOPIC, new SpriteCatalogChange(nodeId, event));
+        }
+    }
+
+    private synchronized void invalidate(SpriteChangedEvent event) {
+        generation++;
+        evict(event.spriteName());
+        if (event.previousName() != null) {
+            evict(event.previousName());
+        }
+
+        List<SpriteInfos> idle = idleSprites;
+        boolean idleUnchanged = idle != null
+                && event.animationId() != null
+                && idle.stream().noneMatch(info -> info.getAnimationId().equals(event.animationId()));
+        if (!idleUnchanged) {
+            idleSprites = null;
+        }
+    }
+
+    private void evict(String spriteName) {
+        List<SpriteInfos> removed = animations.remove(spriteName);
+        if (removed != null) {
+            unindex(removed);
+        }
+    }
+
+    private void unindex(List<SpriteInfos> infos) {
+        for (SpriteInfos info : infos) {
+            spriteByAnimation.remove(info.getAnimationId(), info.getName());
+        }
+    }
+
+    private synchronized long generation() {
+        return generation;
+    }
+}
@@ -0,0 +1,114 @@
+package dow.service;
+
+import dow.model.dto.SpriteCatalogChange;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.converter.JacksonJsonMessageConverter;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Abonne ce nœud au /topic/sprite-catalog des autres répliques listées dans sprite.catalog.peers
+ * (ex. ws://back-2:8085/ws/websocket) et rejoue leurs changements comme des SpriteChangedEvent locaux :
+ * catalogue, atlas, variantes et cache de fichiers restent ainsi cohérents. Les changements reçus ne sont
+ * pas rediffusés, chaque nœud doit donc lister tous les autres.
+ */
+@Service
+public class SpriteCatalogPeerRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(SpriteCatalogPeerRelay.class);
+
+    private final SpriteCatalogCache catalog;
+    private final ApplicationEventPublisher eventPublisher;
+    private final List<String> peers;
+    private final WebSocketStompClient stompClient;
+    private final Map<String, CompletableFuture<StompSession>> sessions = new ConcurrentHashMap<>();
+
+    public SpriteCatalogPeerRelay(SpriteCatalogCache catalog,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${sprite.catalog.peers:}") String peers) {
+        this.catalog = catalog;
+        this.eventPublisher = eventPublisher;
+        this.peers = Arrays.stream(peers.split(","))
+                .map(String::trim)
+                .filter(peer -> !peer.isEmpty())
+                .toList();
+        this.stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        this.stompClient.setMessageConverter(new JacksonJsonMessageConverter());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        connectPeers();
+    }
+
+    @Scheduled(
+            initialDelayString = "${sprite.catalog.peer-retry-ms:10000}",
+            fixedDelayString = "${sprite.catalog.peer-retry-ms:10000}"
+    )
+    public void connectPeers() {
+        for (String peer : peers) {
+            CompletableFuture<StompSession> session = sessions.get(peer);
+            if (session == null || isDead(session)) {
+                sessions.put(peer, connect(peer));
+            }
+        }
+    }
+
+    private static boolean isDead(CompletableFuture<StompSession> session) {
+        if (!session.isDone()) {
+            return false;
+        }
+        return session.isCompletedExceptionally() || !session.join().isConnected();
+    }
+
+    private CompletableFuture<StompSession> connect(String peer) {
+        return stompClient.connectAsync(peer, new StompSessionHandlerAdapter() {
+            @Override
+            public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+                session.subscribe(SpriteCatalogCache.TOPIC, this);
+                log.info("Abonné au catalogue de {}", peer);
+            }
+
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return SpriteCatalogChange.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                SpriteCatalogChange change = (SpriteCatalogChange) payload;
+                if (change != null && !catalog.getNodeId().equals(change.getNodeId())) {
+                    eventPublisher.publishEvent(change.toEvent());
+                }
+            }
+
+            @Override
+            public void handleTransportError(StompSession session, Throwable exception) {
+                log.warn("Connexion au catalogue de {} perdue: {}", peer, exception.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        sessions.values().forEach(session -> session.thenAccept(StompSession::disconnect));
+    }
+}
@@ -0,0 +1,249 @@
+package dow.service;
+
+import dow.model.SpriteChangedEvent;
+import dow.model.dto.CatalogRow;
+import dow.model.enumeration.AnimationType;
+import dow.repository.SpriteCatalogChangeRepository;
+import dow.repository.SpriteRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Catalogue complet des sprites dans un format binaire compact, versionné, pour le client de jeu.
+ * <p>
+ * Format (big-endian) :
+ * <pre>
+ * en-tête    : magic "DOWC" (int), format (u8 = 3), flags (u8, bit 0 = delta), version (long), base (long, 0 si complet)
+ * chaînes    : nombre (int), puis pour chacune longueur (u16) + octets UTF-8 ; les types d'animation viennent en premier
+ * sprites    : nombre (int), puis 14 octets par sprite : nom (int), scale (float), première animation (int), nombre (u16)
+ * animations : nombre (int), puis 72 octets par animation : id (long), type (u16), indice (u16), largeur (int),
+ *              hauteur (int), frames (u16), frameRate (u16), hitbox x/y/largeur/hauteur (4 int, Integer.MIN_VALUE si absente),
+ *              hash SHA-256 de la feuille (32 octets, zéros si inconnu)
+ * supprimés  : nombre (int), puis l'index (int) du nom de chaque sprite supprimé (delta uniquement)
+ * </pre>
+ * Un delta ne contient que les sprites modifiés depuis la version de base, en entier ; le client remplace
+ * ceux qu'il connaît et retire les supprimés.
+ * <p>
+ * Les versions viennent du journal sprite_catalog_change, en base : toutes les répliques donnent la même
+ * version, le même ETag et les mêmes deltas, quel que soit le nœud qui a reçu le changement. Chaque
+ * changement local y est inscrit dans sa propre transaction ; ceux relayés par les autres nœuds y sont déjà.
+ */
+@Service
+public class SpriteCatalogSnapshotService {
+
+    private static final int MAGIC = 0x444F5743;
+    private static final int FORMAT = 3;
+    private static final int FLAG_DELTA = 1;
+    private static final int NO_HITBOX = Integer.MIN_VALUE;
+    private static final int HASH_BYTES = 32;
+    private static final int GZIP_THRESHOLD = 1024;
+
+    /**
+     * body est null quand le client est déjà à jour.
+     */
+    public record Payload(long version, byte[] body, boolean gzip, boolean delta) {
+    }
+
+    private record Snapshot(long version, byte[] raw, byte[] gzip) {
+    }
+
+    private final SpriteRepository spriteRepository;
+    private final SpriteCatalogChangeRepository changeRepository;
+    private final int maxHistory;
+    private volatile Snapshot snapshot;
+
+    public SpriteCatalogSnapshotService(SpriteRepository spriteRepository,
+                                        SpriteCatalogChangeRepository changeRepository,
+                                        @Value("${sprite.catalog.snapshot.delta-history:256}") int maxHistory) {
+        this.spriteRepository = spriteRepository;
+        this.changeRepository = changeRepository;
+        this.maxHistory = maxHistory;
+    }
+
+    public static String etag(long version) {
+        return "\"catalog-" + version + "\"";
+    }
+
+    /**
+     * Delta depuis since si cette version est encore dans l'historique, snapshot complet sinon. Un
+     * If-None-Match sur la version courante donne un 304, mais jamais un delta.
+     */
+    public Payload get(Long since, String ifNoneMatch, boolean acceptGzip) {
+        SpriteCatalogChangeRepository.Bounds bounds = changeRepository.bounds();
+        long current = bounds.current();
+
+        if ((since != null && since == current) || etag(current).equals(ifNoneMatch)) {
+            return new Payload(current, null, false, false);
+        }
+
+        // les versions après since doivent toutes être encore dans le journal
+        if (since != null && since > 0 && since >= bounds.oldest() - 1 && since < current) {
+            Set<String> changed = new HashSet<>(changeRepository.findSpriteNamesBetween(since, current));
+            byte[] raw = delta(current, since, changed);
+            boolean gzip = acceptGzip && raw.length > GZIP_THRESHOLD;
+            return new Payload(current, gzip ? gzip(raw) : raw, gzip, true);
+        }
+
+        Snapshot full = snapshot(current);
+        return new Payload(full.version(), acceptGzip ? full.gzip() : full.raw(), acceptGzip, false);
+    }
+
+    /**
+     * Inscrit le changement dans la transaction qui l'a produit. Les changements relayés par un autre nœud
+     * y ont déjà été inscrits par lui.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onSpriteChanged(SpriteChangedEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+
+        Set<String> names = new HashSet<>();
+        names.add(event.spriteName());
+        if (event.previousName() != null) {
+            names.add(event.previousName());
+        }
+        changeRepository.insert(names);
+    }
+
+    @Scheduled(fixedDelayString = "${sprite.catalog.snapshot.prune-interval-ms:600000}")
+    public void prune() {
+        changeRepository.prune(maxHistory);
+    }
+
+    /**
+     * Les lignes sont lues après la version : un snapshot peut contenir un changement plus récent que sa
+     * version, jamais l'inverse, et le delta suivant le renverra simplement une seconde fois.
+     */
+    private Snapshot snapshot(long current) {
+        Snapshot cached = snapshot;
+        if (cached != null && cached.version() >= current) {
+            return cached;
+        }
+
+        byte[] raw = encode(current, 0, spriteRepository.findCatalogRows(), List.of());
+        Snapshot built = new Snapshot(current, raw, gzip(raw));
+        synchronized (this) {
+            if (snapshot == null || snapshot.version() < current) {
+                snapshot = built;
+            }
+        }
+        return built;
+    }
+
+    private byte[] delta(long current, long base, Set<String> changed) {
+        List<CatalogRow> rows = spriteRepository.findCatalogRowsBySpriteNameIn(changed);
+
+        Set<String> removed = new TreeSet<>(changed);
+        for (CatalogRow row : rows) {
+            removed.remove(row.spriteName());
+        }
+
+        return encode(current, base, rows, removed);
+    }
+
+    private byte[] encode(long current, long base, List<CatalogRow> rows, Collection<String> removed) {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        for (AnimationType type : AnimationType.values()) {
+            strings.putIfAbsent(type.name(), strings.size());
+        }
+
+        List<Integer> spriteStarts = new ArrayList<>();
+        String previous = null;
+        for (int i = 0; i < rows.size(); i++) {
+            String name = rows.get(i).spriteName();
+            if (!name.equals(previous)) {
+                spriteStarts.add(i);
+                strings.putIfAbsent(name, strings.size());
+                previous = name;
+            }
+        }
+        for (String name : removed) {
+            strings.putIfAbsent(name, strings.size());
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + rows.size() * 80);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(FORMAT);
+            out.writeByte(base != 0 ? FLAG_DELTA : 0);
+            out.writeLong(current);
+            out.writeLong(base);
+
+            out.writeInt(strings.size());
+            for (String value : strings.keySet()) {
+                byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(utf8.length);
+                out.write(utf8);
+            }
+
+            out.writeInt(spriteStarts.size());
+            for (int i = 0; i < spriteStarts.size(); i++) {
+                int start = spriteStarts.get(i);
+                int end = i + 1 < spriteStarts.size() ? spriteStarts.get(i + 1) : rows.size();
+                CatalogRow first = rows.get(start);
+                out.writeInt(strings.get(first.spriteName()));
+                out.writeFloat(first.scale());
+                out.writeInt(start);
+                out.writeShort(end - start);
+            }
+
+            out.writeInt(rows.size());
+            for (CatalogRow row : rows) {
+                out.writeLong(row.animationId());
+                out.writeShort(strings.get(row.type().name()));
+                out.writeShort(row.indice());
+                out.writeInt(row.width());
+                out.writeInt(row.height());
+                out.writeShort(row.frames());
+                out.writeShort(row.frameRate());
+                out.writeInt(row.hitboxX() != null ? row.hitboxX() : NO_HITBOX);
+                out.writeInt(row.hitboxY() != null ? row.hitboxY() : NO_HITBOX);
+                out.writeInt(row.hitboxWidth() != null ? row.hitboxWidth() : NO_HITBOX);
+                out.writeInt(row.hitboxHeight() != null ? row.hitboxHeight() : NO_HITBOX);
+                out.write(hashBytes(row.contentHash()));
+            }
+
+            out.writeInt(removed.size());
+            for (String name : removed) {
+                out.writeInt(strings.get(name));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static byte[] hashBytes(String hash) {
+        if (hash == null || hash.length() != HASH_BYTES * 2) {
+            return new byte[HASH_BYTES];
+        }
+        try {
+            return HexFormat.of().parseHex(hash);
+        } catch (IllegalArgumentException e) {
+            return new byte[HASH_BYTES];
+        }
+    }
+
+    private static byte[] gzip(byte[] raw) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(raw.length / 2 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,468 @@
+package dow.service;
+
+import dow.model.SpriteChangedEvent;
+import dow.model.dto.AnimationVersion;
+import dow.model.enumeration.AnimationType;
+import dow.repository.AnimationRepository;
+import dow.storage.SpriteStorage;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service des fichiers de sprite-storage. Les petits fichiers chauds restent en mémoire directe, les autres
+ * partent par sendfile (Tomcat) ou FileChannel.transferTo.
+ */
+@Service
+public class SpriteFileService {
+
+    private static final Logger log = LoggerFactory.getLogger(SpriteFileService.class);
+    private static final String URL_PREFIX = "/api/sprite/sprite-storage/";
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+    private static final long[] UNSATISFIABLE = new long[0];
+    private static final MediaType WEBP = MediaType.parseMediaType("image/webp");
+    private static final String MIP_LEVEL_HEADER = "X-Sprite-Mip-Level";
+
+    private record CachedFile(String etag, long lastModified, MediaType contentType, ByteBuffer data, AtomicLong lastAccess) {
+    }
+
+    /**
+     * stored : feuille d'origine versionnée, dont le chemin définitif (blob) n'est résolu qu'en cas d'absence
+     * du cache chaud.
+     */
+    private record Selection(String key, Path path, String version, int level, MediaType contentType, String contentEncoding,
+                             boolean stored) {
+    }
+
+    private record FileMeta(Path path, String etag, long size, long lastModified, MediaType contentType, ByteBuffer data) {
+    }
+
+    private final AnimationRepository animationRepository;
+    private final SpriteVariantService spriteVariantService;
+    private final SpriteStorage spriteStorage;
+    private final Path storageRoot;
+    private final int maxMipLevel;
+    private final long cacheMaxBytes;
+    private final long cacheMaxFileBytes;
+    private final Map<String, String> sheetVersions = new ConcurrentHashMap<>();
+    private final Map<String, CachedFile> hotFiles = new ConcurrentHashMap<>();
+    private final AtomicLong cachedBytes = new AtomicLong();
+
+    public SpriteFileService(AnimationRepository animationRepository,
+                             SpriteVariantService spriteVariantService,
+                             SpriteStorage spriteStorage,
+                             @Value("${sprite.storage.root}") String storageRoot,
+                             @Value("${sprite.variants.max-mip-level:3}") int maxMipLevel,
+                             @Value("${sprite.serve.cache-max-bytes:67108864}") long cacheMaxBytes,
+                             @Value("${sprite.serve.cache-max-file-bytes:4194304}") long cacheMaxFileBytes) {
+        this.animationRepository = animationRepository;
+        this.spriteVariantService = spriteVariantService;
+        this.spriteStorage = spriteStorage;
+        this.storageRoot = Paths.get(storageRoot).toAbsolutePath().normalize();
+        this.maxMipLevel = maxMipLevel;
+        this.cacheMaxBytes = cacheMaxBytes;
+        this.cacheMaxFileBytes = cacheMaxFileBytes;
+    }
+
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String relative = request.getRequestURI().replace(URL_PREFIX, "");
+        Path filePath = storageRoot.resolve(relative).normalize();
+
+        if (!filePath.startsWith(storageRoot) || filePath.equals(storageRoot)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String version;
+        Selection selection;
+        FileMeta file;
+        try {
+            version = findSheetVersion(relative);
+            selection = select(request, relative, filePath, version);
+            file = resolve(selection);
+        } catch (NoSuchFileException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        boolean immutable = version != null
+                ? version.equals(request.getParameter("v"))
+                : relative.startsWith(".atlas/") && relative.endsWith(".png");
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, (immutable ? IMMUTABLE : CacheControl.noCache()).getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (version != null) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            response.setHeader(MIP_LEVEL_HEADER, Integer.toString(selection.level()));
+        } else if (relative.endsWith(".json")) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+
+        if (new ServletWebRequest(request, response).checkNotModified(file.etag(), file.lastModified())) {
+            return;
+        }
+
+        response.setContentType(selection.contentType().toString());
+        if (selection.contentEncoding() != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, selection.contentEncoding());
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filePath.getFileName() + "\"");
+
+        long start = 0;
+        long length = file.size();
+        long[] range = selection.contentEncoding() == null ? parseRange(request, file) : null;
+
+        if (range == UNSATISFIABLE) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + file.size());
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+
+        if (range != null) {
+            start = range[0];
+            length = range[1] - range[0] + 1;
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + range[0] + "-" + range[1] + "/" + file.size());
+        }
+
+        response.setContentLengthLong(length);
+
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        if (file.data() != null) {
+            response.getOutputStream().write(file.data().slice((int) start, (int) length));
+        } else if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.path().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+        } else {
+            transfer(file.path(), start, length, response);
+        }
+    }
+
+    /**
+     * Pour une feuille versionnée : variante WebP si le client l'accepte, niveau de mip demandé par ?mip=n,
+     * avec repli sur la feuille d'origine tant que la variante n'est pas construite. Pour un index JSON :
+     * version gzip pré-compressée si le client l'accepte.
+     */
+    private Selection select(HttpServletRequest request, String relative, Path filePath, String version) throws IOException {
+        if (version != null) {
+            int level = requestedMipLevel(request);
+            boolean webp = spriteVariantService.isWebpEnabled() && accepts(request.getHeader(HttpHeaders.ACCEPT), "image/webp");
+
+            for (int candidateLevel : level > 0 ? new int[]{level, 0} : new int[]{0}) {
+                for (boolean candidateWebp : webp ? new boolean[]{true, false} : new boolean[]{false}) {
+                    if (candidateLevel == 0 && !candidateWebp) {
+                        return new Selection(relative, filePath, version, 0, MediaType.IMAGE_PNG, null, true);
+                    }
+
+                    String tag = version + "-" + candidateLevel + (candidateWebp ? "w" : "");
+                    String key = relative + "#" + tag;
+                    Path variant = spriteVariantService.variantPath(relative, version, candidateLevel, candidateWebp);
+                    if (hotFiles.containsKey(key) || Files.exists(variant)) {
+                        return new Selection(key, variant, tag, candidateLevel, candidateWebp ? WEBP : MediaType.IMAGE_PNG, null, false);
+                    }
+                }
+            }
+        }
+
+        if (relative.endsWith(".json") && accepts(request.getHeader(HttpHeaders.ACCEPT_ENCODING), "gzip")) {
+            Path gz = filePath.resolveSibling(filePath.getFileName() + ".gz");
+            if (Files.exists(gz)) {
+                return new Selection(relative + "#gz", gz, null, 0, MediaType.APPLICATION_JSON, "gzip", false);
+            }
+        }
+
+        return new Selection(relative, filePath, version, 0, contentType(filePath), null, false);
+    }
+
+    private int requestedMipLevel(HttpServletRequest request) {
+        String mip = request.getParameter("mip");
+        if (mip == null) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Math.min(Integer.parseInt(mip), maxMipLevel));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static boolean accepts(String header, String value) {
+        return header != null && header.toLowerCase(Locale.ROOT).contains(value);
+    }
+
+    private FileMeta resolve(Selection selection) throws IOException {
+        String relative = selection.key();
+        String version = selection.version();
+
+        CachedFile cached = hotFiles.get(relative);
+        if (cached != null && version != null && cached.etag().equals(strongEtag(version))) {
+            return hit(selection.path(), cached);
+        }
+
+        Path filePath = selection.stored() ? sheetSource(version, selection.path()) : selection.path();
+
+        BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+        if (attributes.isDirectory()) {
+            return null;
+        }
+
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String etag = version != null
+                ? strongEtag(version)
+                : "W/\"" + Long.toHexString(attributes.size()) + "-" + Long.toHexString(lastModified) + "\"";
+
+        if (cached != null && cached.etag().equals(etag)) {
+            return hit(filePath, cached);
+        }
+
+        MediaType contentType = selection.contentType();
+        if (attributes.size() > cacheMaxFileBytes) {
+            return new FileMeta(filePath, etag, attributes.size(), lastModified, contentType, null);
+        }
+
+        ByteBuffer data = load(filePath, attributes.size());
+        cache(relative, new CachedFile(etag, lastModified, contentType, data, new AtomicLong(System.nanoTime())));
+        return new FileMeta(filePath, etag, data.capacity(), lastModified, contentType, data);
+    }
+
+    private static FileMeta hit(Path filePath, CachedFile cached) {
+        cached.lastAccess().set(System.nanoTime());
+        return new FileMeta(filePath, cached.etag(), cached.data().capacity(), cached.lastModified(), cached.contentType(), cached.data());
+    }
+
+    private static ByteBuffer load(Path filePath, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // lecture complète
+            }
+        }
+        buffer.flip();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    private void cache(String relative, CachedFile file) {
+        CachedFile previous = hotFiles.put(relative, file);
+        long total = cachedBytes.addAndGet(file.data().capacity() - (previous != null ? previous.data().capacity() : 0));
+
+        if (total > cacheMaxBytes) {
+            evictColdest();
+        }
+    }
+
+    /**
+     * Éviction approximative du moins récemment servi, jusqu'à 80 % de la capacité. Appelée rarement :
+     * uniquement quand un nouveau fichier fait déborder le cache.
+     */
+    private synchronized void evictColdest() {
+        if (cachedBytes.get() <= cacheMaxBytes) {
+            return;
+        }
+
+        List<Map.Entry<String, CachedFile>> entries = new ArrayList<>(hotFiles.entrySet());
+        entries.sort(Comparator.comparingLong(e -> e.getValue().lastAccess().get()));
+
+        for (Map.Entry<String, CachedFile> entry : entries) {
+            if (cachedBytes.get() <= cacheMaxBytes * 8 / 10) {
+                break;
+            }
+            evict(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void evict(String key, CachedFile file) {
+        if (hotFiles.remove(key, file)) {
+            cachedBytes.addAndGet(-file.data().capacity());
+        }
+    }
+
+    private static void transfer(Path filePath, long start, long length, HttpServletResponse response) throws IOException {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    /**
+     * Une seule plage "bytes=a-b", "bytes=a-" ou "bytes=-n". Les plages multiples et un If-Range qui ne
+     * correspond pas à l'ETag courant renvoient le fichier entier.
+     */
+    private static long[] parseRange(HttpServletRequest request, FileMeta file) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null || !header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(file.etag())) {
+            return null;
+        }
+
+        String spec = header.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+
+        long size = file.size();
+        long start;
+        long end;
+        try {
+            if (dash == 0) {
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0) {
+                    return UNSATISFIABLE;
+                }
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                String last = spec.substring(dash + 1);
+                end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        if (start >= size || start > end) {
+            return UNSATISFIABLE;
+        }
+
+        return new long[]{start, end};
+    }
+
+    private static MediaType contentType(Path filePath) throws IOException {
+        String name = filePath.getFileName().toString();
+        if (name.endsWith(".png")) {
+            return MediaType.IMAGE_PNG;
+        }
+        if (name.endsWith(".json")) {
+            return MediaType.APPLICATION_JSON;
+        }
+        String type = Files.probeContentType(filePath);
+        return MediaType.parseMediaType(type != null ? type : "application/octet-stream");
+    }
+
+    private static String strongEtag(String version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Une feuille versionnée est servie depuis son blob ; le chemin historique ne sert plus que de repli
+     * tant que la migration du stockage n'est pas passée.
+     */
+    private Path sheetSource(String version, Path filePath) throws IOException {
+        if (version == null) {
+            return filePath;
+        }
+        Path blob = spriteStorage.fetch(version);
+        return blob != null ? blob : filePath;
+    }
+
+    /**
+     * Hash de contenu d'une feuille "nom/TYPE/indice.png", mis en cache jusqu'à la prochaine modification
+     * du sprite.
+     */
+    private String findSheetVersion(String relative) {
+        String cached = sheetVersions.get(relative);
+        if (cached != null) {
+            return cached;
+        }
+
+        String[] parts = relative.split("/");
+        if (parts.length != 3 || !parts[2].endsWith(".png")) {
+            return null;
+        }
+
+        AnimationVersion version;
+        try {
+            version = animationRepository.findVersion(
+                    parts[0],
+                    AnimationType.valueOf(parts[1]),
+                    Integer.parseInt(parts[2].substring(0, parts[2].length() - 4))
+            );
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        if (version == null) {
+            return null;
+        }
+
+        String hash = version.contentHash();
+        if (hash != null) {
+            sheetVersions.put(relative, hash);
+        }
+        return hash;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSpriteChanged(SpriteChangedEvent event) {
+        evictSprite(event.spriteName());
+        if (event.previousName() != null) {
+            evictSprite(event.previousName());
+        }
+    }
+
+    private void evictSprite(String spriteName) {
+        String prefix = spriteName + "/";
+        sheetVersions.keySet().removeIf(key -> key.startsWith(prefix));
+        hotFiles.forEach((key, file) -> {
+            if (key.startsWith(prefix)) {
+                evict(key, file);
+            }
+        });
+        log.debug("Cache de fichiers invalidé pour '{}'", spriteName);
+    }
+}
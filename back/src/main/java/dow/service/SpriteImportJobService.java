@@ -0,0 +1,119 @@
+package dow.service;
+
+import dow.exception.AlreadyExist;
+import dow.model.SpriteArchive;
+import dow.model.dto.SpriteImportEvent;
+import dow.model.dto.SpriteInfos;
+import dow.model.enumeration.SpriteImportStage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Service
+public class SpriteImportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(SpriteImportJobService.class);
+    private static final String TOPIC = "/topic/sprite-import/";
+    private static final int MAX_TRACKED_JOBS = 100;
+
+    private final SpriteService spriteService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ExecutorService spriteImportJobPool;
+    private final Map<String, SpriteImportEvent> jobs = new ConcurrentHashMap<>();
+    private final Queue<String> jobOrder = new ConcurrentLinkedQueue<>();
+
+    public SpriteImportJobService(SpriteService spriteService,
+                                  SimpMessagingTemplate messagingTemplate,
+                                  @Qualifier("spriteImportJobPool") ExecutorService spriteImportJobPool) {
+        this.spriteService = spriteService;
+        this.messagingTemplate = messagingTemplate;
+        this.spriteImportJobPool = spriteImportJobPool;
+    }
+
+    /**
+     * Refuse avant toute copie quand la file est pleine ; sinon l'upload est seulement copié sur disque, la
+     * décompression se fait sur le worker.
+     */
+    public SpriteImportEvent submit(MultipartFile zipFile) {
+        if (spriteImportJobPool instanceof ThreadPoolExecutor pool && pool.getQueue().remainingCapacity() == 0) {
+            throw new RejectedExecutionException("File d'import pleine");
+        }
+
+        Path upload = spriteService.saveUpload(zipFile);
+        String jobId = UUID.randomUUID().toString();
+
+        try {
+            spriteImportJobPool.execute(() -> run(jobId, upload));
+        } catch (RejectedExecutionException e) {
+            deleteUpload(upload);
+            throw e;
+        }
+
+        track(jobId);
+        SpriteImportEvent queued = new SpriteImportEvent(jobId, SpriteImportStage.QUEUED, 0, 0, null, null);
+        jobs.putIfAbsent(jobId, queued);
+        log.info("Import sprite mis en file: job {}", jobId);
+        return queued;
+    }
+
+    public SpriteImportEvent getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    private void run(String jobId, Path upload) {
+        try {
+            SpriteArchive archive;
+            try {
+                archive = spriteService.readArchive(upload);
+            } finally {
+                deleteUpload(upload);
+            }
+            SpriteInfos sprite = spriteService.importArchive(archive, (stage, done, total) ->
+                    publish(new SpriteImportEvent(jobId, stage, done, total, null, null)));
+            publish(new SpriteImportEvent(jobId, SpriteImportStage.COMMITTED, 1, 1, null, sprite));
+        } catch (AlreadyExist e) {
+            publish(new SpriteImportEvent(jobId, SpriteImportStage.FAILED, 0, 0, e.getMessage(), null));
+        } catch (Exception e) {
+            log.error("Échec du job d'import {}: {}", jobId, e.getMessage());
+            publish(new SpriteImportEvent(jobId, SpriteImportStage.FAILED, 0, 0, e.getMessage(), null));
+        }
+    }
+
+    private static void deleteUpload(Path upload) {
+        try {
+            Files.deleteIfExists(upload);
+        } catch (IOException e) {
+            log.warn("Suppression impossible de {}: {}", upload, e.getMessage());
+        }
+    }
+
+    private void publish(SpriteImportEvent event) {
+        jobs.put(event.getJobId(), event);
+        messagingTemplate.convertAndSend(TOPIC + event.getJobId(), event);
+    }
+
+    private void track(String jobId) {
+        jobOrder.add(jobId);
+        while (jobOrder.size() > MAX_TRACKED_JOBS) {
+            String oldest = jobOrder.poll();
+            if (oldest != null) {
+                jobs.remove(oldest);
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package dow.service;
+
+import dow.model.enumeration.SpriteImportStage;
+
+@FunctionalInterface
+public interface SpriteImportListener {
+
+    SpriteImportListener NONE = (stage, done, total) -> {
+    };
+
+    void onProgress(SpriteImportStage stage, int done, int total);
+}
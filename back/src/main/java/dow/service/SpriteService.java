@@ -1,99 +1,148 @@
 package dow.service;
 
 import dow.exception.AlreadyExist;
+import dow.image.ContentHash;
+import dow.image.PngQuantizer;
+import dow.image.SpriteSheetAnalysis;
+import dow.image.SpriteSheetAnalyzer;
+import dow.image.SpriteSheetNormalizer;
+import dow.model.SpriteArchive;
+import dow.model.SpriteChangedEvent;
 import dow.model.dto.HitboxDto;
 import dow.model.dto.ModifSpriteDto;
+import dow.model.dto.SpriteImportResultDto;
 import dow.model.dto.SpriteInfos;
 import dow.model.entities.Animation;
 import dow.model.entities.Sprite;
 import dow.model.enumeration.AnimationType;
+import dow.model.enumeration.SpriteChangeType;
+import dow.model.enumeration.SpriteImportStage;
+import dow.model.enumeration.SpriteImportStatus;
 import dow.repository.AnimationRepository;
+import dow.repository.SpriteJdbcRepository;
 import dow.repository.SpriteRepository;
-import jakarta.servlet.http.HttpServletRequest;
+import dow.storage.SpriteStorage;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.util.FileSystemUtils;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
 
 @Service
 public class SpriteService {
 
     private static final Logger log = LoggerFactory.getLogger(SpriteService.class);
     private static final String SEPARATOR = "═══════════════════════════════════════════════════════════";
-    private static final int ALPHA_THRESHOLD = 10;
-    private static final int MIN_ABSOLUTE_WIDTH = 5;
-    private static final double RESIDUAL_THRESHOLD = 0.3;
-    private static final double LARGE_BLOCK_FACTOR = 1.9;
-    private static final double STDDEV_MULTIPLIER = 2.0;
     private static final List<AnimationType> ANIMATION_TYPES = List.of(
             AnimationType.IDLE,
             AnimationType.WALK,
             AnimationType.ATTACK
     );
 
-    private final Path storageRoot;
+    private final SpriteStorage spriteStorage;
+    private final SpriteBlobCollector blobCollector;
+    private final SpriteCatalogCache catalog;
     private final SpriteRepository spriteRepository;
+    private final SpriteJdbcRepository spriteJdbcRepository;
     private final AnimationRepository animationRepository;
+    private final SpriteSheetAnalyzer spriteSheetAnalyzer;
+    private final SpriteSheetNormalizer spriteSheetNormalizer;
+    private final PngQuantizer pngQuantizer;
+    private final ExecutorService spriteWorkerPool;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Value("${sprite.storage.root}")
-    private String spriteStorage;
+    @Value("${sprite.import.max-uncompressed-bytes:268435456}")
+    private long maxUncompressedBytes;
 
     public SpriteService(SpriteRepository spriteRepository,
+                         SpriteJdbcRepository spriteJdbcRepository,
                          AnimationRepository animationRepository,
-                         @Value("${sprite.storage.root}") String storageRoot) {
+                         SpriteSheetAnalyzer spriteSheetAnalyzer,
+                         SpriteSheetNormalizer spriteSheetNormalizer,
+                         PngQuantizer pngQuantizer,
+                         @Qualifier("spriteWorkerPool") ExecutorService spriteWorkerPool,
+                         TransactionTemplate transactionTemplate,
+                         ApplicationEventPublisher eventPublisher,
+                         SpriteStorage spriteStorage,
+                         SpriteBlobCollector blobCollector,
+                         SpriteCatalogCache catalog) {
         this.spriteRepository = spriteRepository;
+        this.spriteJdbcRepository = spriteJdbcRepository;
         this.animationRepository = animationRepository;
-        this.storageRoot = Paths.get(storageRoot).toAbsolutePath().normalize();
-        initStorage();
+        this.spriteSheetAnalyzer = spriteSheetAnalyzer;
+        this.spriteSheetNormalizer = spriteSheetNormalizer;
+        this.pngQuantizer = pngQuantizer;
+        this.spriteWorkerPool = spriteWorkerPool;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.spriteStorage = spriteStorage;
+        this.blobCollector = blobCollector;
+        this.catalog = catalog;
     }
 
-    private void initStorage() {
-        try {
-            if (Files.notExists(storageRoot)) {
-                Files.createDirectories(storageRoot);
-                log.info("Stockage créé: {}", storageRoot);
-            } else {
-                log.debug("Stockage existant: {}", storageRoot);
-            }
+    public SpriteInfos processSpriteZip(MultipartFile zipFile) {
+        return importArchive(readArchive(zipFile), SpriteImportListener.NONE);
+    }
+
+    public SpriteArchive readArchive(MultipartFile zipFile) {
+        log.info("Début traitement ZIP: {}", zipFile.getOriginalFilename());
+        validateZipFile(zipFile);
+
+        try (InputStream in = zipFile.getInputStream()) {
+            return SpriteArchive.read(in, ANIMATION_TYPES, maxUncompressedBytes);
         } catch (IOException e) {
-            log.error("Impossible d'initialiser le stockage des sprites", e);
-            throw new RuntimeException(e);
+            log.error("Erreur ZIP: {}", e.getMessage(), e);
+            throw new RuntimeException("Erreur import sprite: " + e.getMessage(), e);
         }
     }
 
-    @Transactional
-    public SpriteInfos processSpriteZip(MultipartFile zipFile) {
-        log.info("Début traitement ZIP: {}", zipFile.getOriginalFilename());
+    /**
+     * Copie l'upload tel quel dans un fichier temporaire, sans le décompresser, pour un import en tâche
+     * de fond (le MultipartFile disparaît avec la requête). À supprimer par l'appelant.
+     */
+    public Path saveUpload(MultipartFile zipFile) {
         validateZipFile(zipFile);
 
-        Path tempDir = null;
         try {
-            tempDir = unzipToTempDirectory(zipFile);
-            File spriteRoot = findSpriteRoot(tempDir);
-            String spriteName = spriteRoot.getName();
+            Path upload = Files.createTempFile("sprite-import-", ".zip");
+            zipFile.transferTo(upload);
+            return upload;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Copie de l'upload impossible: " + e.getMessage(), e);
+        }
+    }
+
+    public SpriteArchive readArchive(Path zipFile) {
+        try (InputStream in = Files.newInputStream(zipFile)) {
+            return SpriteArchive.read(in, ANIMATION_TYPES, maxUncompressedBytes);
+        } catch (IOException e) {
+            log.error("Erreur ZIP: {}", e.getMessage(), e);
+            throw new RuntimeException("Erreur import sprite: " + e.getMessage(), e);
+        }
+    }
+
+    public SpriteInfos importArchive(SpriteArchive archive, SpriteImportListener listener) {
+        try {
+            String spriteName = findSpriteRoot(archive);
             log.info("Sprite détecté: '{}'", spriteName);
 
             validateSpriteNotExists(spriteName);
@@ -101,14 +150,22 @@ public class SpriteService {
             Sprite sprite = new Sprite(spriteName);
             sprite.setScale(1);
 
-            processAnimationsMetaData(spriteRoot, sprite);
-            storeSpriteFiles(spriteRoot, spriteName);
-            spriteRepository.save(sprite);
+            List<SpriteArchive.Sheet> sheets = archive.getSheets(spriteName);
+            listener.onProgress(SpriteImportStage.UNZIPPED, 0, sheets.size());
+
+            processAnimationsMetaData(sheets, sprite, listener);
+            storeSpriteFiles(sheets);
+            listener.onProgress(SpriteImportStage.STORED, sheets.size(), sheets.size());
+
+            transactionTemplate.executeWithoutResult(status -> {
+                spriteRepository.save(sprite);
+                eventPublisher.publishEvent(SpriteChangedEvent.of(SpriteChangeType.IMPORTED, spriteName));
+            });
 
             log.info("Sprite '{}' importé avec succès", spriteName);
             logSeparator();
 
-            return spriteRepository.findSpriteInfosByTypeAndName(AnimationType.IDLE, spriteName);
+            return catalog.findByTypeAndName(AnimationType.IDLE, spriteName);
 
         } catch (AlreadyExist e) {
             log.warn("Sprite déjà existant: {}", e.getMessage());
@@ -116,8 +173,6 @@ public class SpriteService {
         } catch (Exception e) {
             log.error("Erreur ZIP: {}", e.getMessage(), e);
             throw new RuntimeException("Erreur import sprite: " + e.getMessage(), e);
-        } finally {
-            cleanupTempDirectory(tempDir);
         }
     }
 
@@ -141,270 +196,176 @@ public class SpriteService {
         log.debug("Nom disponible: '{}'", spriteName);
     }
 
-    private void processAnimationsMetaData(File spriteRoot, Sprite sprite) {
-        log.info("Analyse des animations...");
-        int total = 0;
-
-        for (AnimationType type : ANIMATION_TYPES) {
-            File typeDir = new File(spriteRoot, type.name());
-            if (!typeDir.exists()) {
-                continue;
-            }
+    public List<SpriteImportResultDto> importBatch(SpriteArchive archive) {
+        List<SpriteImportResultDto> results = new ArrayList<>();
+        List<String> candidates = new ArrayList<>();
 
-            File[] images = getImageFiles(typeDir);
-            if (images.length == 0) {
-                continue;
+        for (String name : archive.getRootNames()) {
+            if (isValidSpriteName(name)) {
+                candidates.add(name);
+            } else {
+                results.add(new SpriteImportResultDto(name, SpriteImportStatus.INVALID, 0, "Nom de sprite invalide"));
             }
-
-            Map<File, Integer> frameCount = analyzeAnimationFrames(images);
-            createAnimations(images, frameCount, type, sprite);
-            total += images.length;
         }
 
-        log.info("{} animations créées", total);
-    }
-
-    private File[] getImageFiles(File dir) {
-        File[] images = dir.listFiles(f ->
-                f.isFile() && f.getName().toLowerCase().endsWith(".png")
-        );
+        Set<String> existing = candidates.isEmpty()
+                ? Set.of()
+                : new HashSet<>(spriteRepository.findExistingNames(candidates));
+        log.info("Import par lot: {} sprites, {} déjà existants", candidates.size(), existing.size());
 
-        if (images == null) {
-            return new File[0];
-        }
-
-        Arrays.sort(images, Comparator.comparing(File::getName));
-        return images;
-    }
+        Map<String, List<SheetTask>> tasksBySprite = new LinkedHashMap<>();
+        int total = candidates.stream().mapToInt(name -> archive.getSheets(name).size()).sum();
+        AtomicInteger analyzed = new AtomicInteger();
 
-    private Map<File, Integer> analyzeAnimationFrames(File[] images) {
-        Map<File, Integer> frameCount = new HashMap<>();
-
-        for (File f : images) {
-            try {
-                BufferedImage img = ImageIO.read(f);
-                frameCount.put(f, img != null ? detectFrames(img) : 1);
-            } catch (IOException e) {
-                log.warn("Image illisible {}: 1 frame par défaut", f.getName());
-                frameCount.put(f, 1);
+        for (String name : candidates) {
+            if (existing.contains(name)) {
+                results.add(new SpriteImportResultDto(name, SpriteImportStatus.ALREADY_EXISTS, 0, "Sprite déjà existant: '" + name + "'"));
+            } else {
+                tasksBySprite.put(name, submitAnalysis(archive.getSheets(name), SpriteImportListener.NONE, analyzed, total));
             }
         }
 
-        return frameCount;
-    }
-
-    private void createAnimations(
-            File[] images,
-            Map<File, Integer> frameCountByImage,
-            AnimationType type,
-            Sprite sprite
-    ) {
-        for (int i = 0; i < images.length; i++) {
-            File imgFile = images[i];
+        List<Sprite> sprites = new ArrayList<>();
+        tasksBySprite.forEach((name, tasks) -> {
             try {
-                BufferedImage img = ImageIO.read(imgFile);
-                if (img != null) {
-                    sprite.addAnimation(
-                            new Animation(
-                                    frameCountByImage.get(imgFile),
-                                    img.getWidth(),
-                                    img.getHeight(),
-                                    type,
-                                    i + 1,
-                                    8
-                            )
-                    );
-                }
-            } catch (IOException e) {
-                log.error(
-                        "Erreur création animation {}.{}: {}",
-                        type,
-                        i + 1,
-                        e.getMessage()
-                );
+                Sprite sprite = new Sprite(name);
+                sprite.setScale(1);
+                createAnimations(tasks, sprite);
+                sprites.add(sprite);
+            } catch (Exception e) {
+                log.error("Analyse impossible pour '{}': {}", name, e.getMessage());
+                results.add(new SpriteImportResultDto(name, SpriteImportStatus.FAILED, 0, e.getMessage()));
             }
-        }
-    }
-
-    private int detectFrames(BufferedImage img) {
-        boolean[] columns = scanColumns(img);
-        List<Integer> widths = extractFrameWidths(columns);
+        });
 
-        if (widths.isEmpty()) {
-            return 1;
+        if (!sprites.isEmpty()) {
+            persistBatch(archive, sprites, results);
         }
 
-        double avgWidth = calculateRobustAverageWidth(widths);
-        return Math.max(1, countFrames(widths, avgWidth));
+        logSeparator();
+        return results;
     }
 
-    private boolean[] scanColumns(BufferedImage img) {
-        boolean[] cols = new boolean[img.getWidth()];
-
-        for (int x = 0; x < img.getWidth(); x++) {
-            for (int y = 0; y < img.getHeight(); y++) {
-                int alpha = (img.getRGB(x, y) >>> 24) & 0xff;
-                if (alpha > ALPHA_THRESHOLD) {
-                    cols[x] = true;
-                    break;
-                }
+    private void persistBatch(SpriteArchive archive, List<Sprite> sprites, List<SpriteImportResultDto> results) {
+        try {
+            for (Sprite sprite : sprites) {
+                storeSpriteFiles(archive.getSheets(sprite.getName()));
             }
-        }
 
-        return cols;
-    }
-
-    private List<Integer> extractFrameWidths(boolean[] columns) {
-        List<Integer> widths = new ArrayList<>();
-        int current = 0;
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<String, Long> ids = spriteJdbcRepository.insertSprites(sprites);
+                spriteJdbcRepository.insertAnimations(ids, sprites);
+                for (Sprite sprite : sprites) {
+                    eventPublisher.publishEvent(SpriteChangedEvent.of(SpriteChangeType.IMPORTED, sprite.getName()));
+                }
+            });
 
-        for (boolean hasPixel : columns) {
-            if (hasPixel) {
-                current++;
-            } else if (current > 0) {
-                widths.add(current);
-                current = 0;
+            Map<String, SpriteInfos> infos = new HashMap<>();
+            List<String> names = sprites.stream().map(Sprite::getName).toList();
+            // une feuille IDLE par sprite : la première par indice
+            for (SpriteInfos info : spriteRepository.findSpriteInfosByTypeAndNameIn(AnimationType.IDLE, names)) {
+                infos.putIfAbsent(info.getName(), info);
             }
-        }
 
-        if (current > 0) {
-            widths.add(current);
-        }
-
-        return widths;
-    }
-
-    private double calculateRobustAverageWidth(List<Integer> widths) {
-        List<Integer> filtered = widths.stream()
-                .filter(w -> w >= MIN_ABSOLUTE_WIDTH)
-                .toList();
-
-        if (filtered.isEmpty()) {
-            return 0;
-        }
-
-        double mean = filtered.stream()
-                .mapToInt(i -> i)
-                .average()
-                .orElse(0);
-
-        double stdDev = Math.sqrt(
-                filtered.stream()
-                        .mapToDouble(i -> (i - mean) * (i - mean))
-                        .average()
-                        .orElse(0)
-        );
-
-        return filtered.stream()
-                .filter(w -> Math.abs(w - mean) <= STDDEV_MULTIPLIER * stdDev)
-                .mapToInt(i -> i)
-                .average()
-                .orElse(mean);
-    }
-
-    private int countFrames(List<Integer> widths, double avgWidth) {
-        int total = 0;
-
-        for (int w : widths) {
-            if (w < MIN_ABSOLUTE_WIDTH || w < avgWidth * RESIDUAL_THRESHOLD) {
-                continue;
+            for (Sprite sprite : sprites) {
+                SpriteImportResultDto result = new SpriteImportResultDto(
+                        sprite.getName(), SpriteImportStatus.IMPORTED, sprite.getAnimations().size(), null);
+                result.setSprite(infos.get(sprite.getName()));
+                results.add(result);
             }
+            log.info("{} sprites importés par lot", sprites.size());
 
-            if (w > avgWidth * LARGE_BLOCK_FACTOR) {
-                total += Math.max(1, (int) Math.floor(w / avgWidth));
-            } else {
-                total += 1;
+        } catch (Exception e) {
+            log.error("Erreur import par lot: {}", e.getMessage(), e);
+            for (Sprite sprite : sprites) {
+                results.add(new SpriteImportResultDto(sprite.getName(), SpriteImportStatus.FAILED, 0, e.getMessage()));
             }
         }
-
-        return total;
     }
 
-    private Path unzipToTempDirectory(MultipartFile zipFile) throws IOException {
-        Path dest = Files.createTempDirectory("sprite_upload_");
-
-        try (ZipInputStream zis = new ZipInputStream(zipFile.getInputStream())) {
-            ZipEntry entry;
-
-            while ((entry = zis.getNextEntry()) != null) {
-                Path newPath = dest.resolve(entry.getName()).normalize();
+    private String findSpriteRoot(SpriteArchive archive) {
+        Set<String> roots = archive.getRootNames();
 
-                if (!newPath.startsWith(dest)) {
-                    throw new IOException("ZIP invalide: " + entry.getName());
-                }
+        if (roots.size() != 1) {
+            throw new RuntimeException("ZIP doit contenir un seul dossier racine");
+        }
 
-                if (entry.isDirectory()) {
-                    Files.createDirectories(newPath);
-                } else {
-                    Files.createDirectories(newPath.getParent());
-                    Files.copy(zis, newPath, StandardCopyOption.REPLACE_EXISTING);
-                }
-            }
+        String spriteName = roots.iterator().next();
+        if (!isValidSpriteName(spriteName)) {
+            throw new IllegalArgumentException("Nom de sprite invalide: '" + spriteName + "'");
         }
 
-        return dest;
+        return spriteName;
     }
 
-    private File findSpriteRoot(Path tempDir) {
-        File[] folders = tempDir.toFile().listFiles(File::isDirectory);
-
-        List<File> valid = Arrays.stream(folders != null ? folders : new File[0])
-                .filter(f -> !f.getName().startsWith("__"))
-                .toList();
-
-        if (valid.size() != 1) {
-            throw new RuntimeException("ZIP doit contenir un seul dossier racine");
-        }
-
-        return valid.getFirst();
+    private boolean isValidSpriteName(String name) {
+        return !name.isBlank() && !name.startsWith(".");
     }
 
-    private void cleanupTempDirectory(Path tempDir) {
-        if (tempDir != null) {
-            try {
-                FileSystemUtils.deleteRecursively(tempDir);
-            } catch (IOException ignored) {
-            }
-        }
+    private void processAnimationsMetaData(List<SpriteArchive.Sheet> sheets, Sprite sprite, SpriteImportListener listener) {
+        log.info("Analyse des animations...");
+        List<SheetTask> tasks = submitAnalysis(sheets, listener, new AtomicInteger(), sheets.size());
+        createAnimations(tasks, sprite);
+        log.info("{} animations créées", tasks.size());
     }
 
-    private void storeSpriteFiles(File sourceRoot, String spriteName) throws IOException {
-        Path targetRoot = storageRoot.resolve(spriteName);
+    private List<SheetTask> submitAnalysis(List<SpriteArchive.Sheet> sheets,
+                                           SpriteImportListener listener,
+                                           AtomicInteger analyzed,
+                                           int total) {
+        List<SheetTask> tasks = new ArrayList<>();
 
-        if (Files.exists(targetRoot)) {
-            FileSystemUtils.deleteRecursively(targetRoot);
+        for (SpriteArchive.Sheet sheet : sheets) {
+            CompletableFuture<SpriteSheetAnalysis> analysis = CompletableFuture
+                    .supplyAsync(() -> analyzeImage(sheet), spriteWorkerPool)
+                    .whenComplete((result, error) ->
+                            listener.onProgress(SpriteImportStage.ANALYZED, analyzed.incrementAndGet(), total));
+            tasks.add(new SheetTask(sheet.type(), sheet.indice(), ContentHash.sha256(sheet.data()), analysis));
         }
 
-        Files.createDirectories(targetRoot);
+        return tasks;
+    }
 
-        int totalFiles = 0;
+    private void createAnimations(List<SheetTask> tasks, Sprite sprite) {
+        for (SheetTask task : tasks) {
+            SpriteSheetAnalysis analysis = task.analysis().join();
+            if (analysis == null) {
+                continue;
+            }
 
-        for (AnimationType type : ANIMATION_TYPES) {
-            totalFiles += copyAnimationFiles(sourceRoot, targetRoot, type);
+            Animation animation = new Animation(
+                    analysis.frames(),
+                    analysis.width(),
+                    analysis.height(),
+                    task.type(),
+                    task.indice(),
+                    8
+            );
+            animation.setContentHash(task.contentHash());
+            sprite.addAnimation(animation);
         }
-
-        log.info("{} fichiers copiés vers le stockage", totalFiles);
     }
 
-    private int copyAnimationFiles(File srcRoot, Path targetRoot, AnimationType type) throws IOException {
-        File srcDir = new File(srcRoot, type.name());
-
-        if (!srcDir.exists()) {
-            return 0;
+    private SpriteSheetAnalysis analyzeImage(SpriteArchive.Sheet sheet) {
+        try (ImageInputStream in = new MemoryCacheImageInputStream(new ByteArrayInputStream(sheet.data()))) {
+            BufferedImage img = ImageIO.read(in);
+            if (img == null) {
+                log.warn("Image illisible {}: ignorée", sheet.fileName());
+                return null;
+            }
+            return spriteSheetAnalyzer.analyze(img);
+        } catch (IOException e) {
+            log.error("Erreur lecture image {}: {}", sheet.fileName(), e.getMessage());
+            return null;
         }
+    }
 
-        Path targetDir = targetRoot.resolve(type.name());
-        Files.createDirectories(targetDir);
-
-        File[] images = getImageFiles(srcDir);
-        AtomicInteger counter = new AtomicInteger(1);
-
-        for (File img : images) {
-            Path targetPath = targetDir.resolve(counter.getAndIncrement() + ".png");
-            Files.copy(img.toPath(), targetPath, StandardCopyOption.REPLACE_EXISTING);
+    private void storeSpriteFiles(List<SpriteArchive.Sheet> sheets) throws IOException {
+        for (SpriteArchive.Sheet sheet : sheets) {
+            spriteStorage.put(sheet.data());
         }
 
-        return images.length;
+        log.info("{} fichiers écrits dans le stockage", sheets.size());
     }
 
     @Transactional
@@ -415,29 +376,21 @@ public class SpriteService {
             throw new IllegalArgumentException("Animation introuvable ID: " + animationId);
         }
 
-        Path filePath = Paths.get(spriteStorage, info.getImageUrl());
-        BufferedImage original = ImageIO.read(filePath.toFile());
-
-        if (original == null) {
-            throw new IOException("Impossible de lire l'image");
-        }
-
-        BufferedImage normalized = rebuildFinalSprite(original, info.getFrames());
-
-        File targetFile = filePath.toFile();
-        ImageIO.write(normalized, "png", targetFile);
-
-        optimizeWithPngQuant(targetFile);
+        String previous = info.getVersion();
+        normalizeFile(info);
 
         Animation anim = animationRepository.findById(animationId).orElseThrow();
-        anim.setWidth(normalized.getWidth());
-        anim.setHeight(normalized.getHeight());
+        anim.setWidth(info.getWidth());
+        anim.setHeight(info.getHeight());
+        anim.setContentHash(info.getVersion());
         animationRepository.save(anim);
+        eventPublisher.publishEvent(SpriteChangedEvent.of(SpriteChangeType.NORMALIZED, info.getName(), animationId));
+        blobCollector.collectOnCommit(List.of(previous));
 
         log.info(
                 "Reconstruction et compression terminées: {}x{}px, {} frames",
-                normalized.getWidth(),
-                normalized.getHeight(),
+                info.getWidth(),
+                info.getHeight(),
                 info.getFrames()
         );
 
@@ -445,157 +398,98 @@ public class SpriteService {
         return spriteRepository.findSpriteInfosByAnimationId(animationId);
     }
 
-    private void optimizeWithPngQuant(File file) {
-        try {
-            String[] command = {
-                    "pngquant",
-                    "--force",
-                    "--ext", ".png",
-                    "--quality=60-80",
-                    "--strip",
-                    file.getAbsolutePath()
-            };
-
-            log.debug("Exécution pngquant sur: {}", file.getName());
+    public List<SpriteInfos> normalizeSprite(String spriteName) {
+        List<SpriteInfos> infos = spriteRepository.findAllAnimationsBySpriteName(spriteName);
 
-            Process process = Runtime.getRuntime().exec(command);
+        if (infos.isEmpty()) {
+            throw new IllegalArgumentException("Sprite introuvable: " + spriteName);
+        }
 
-            int exitCode = process.waitFor();
+        return normalizeAnimations(infos);
+    }
 
-            if (exitCode == 0) {
-                log.info("Compression pngquant réussie pour: {}", file.getName());
-            } else {
-                log.warn("Pngquant a terminé avec le code erreur: {}", exitCode);
-            }
-        } catch (Exception e) {
-            log.error("Échec de l'optimisation pngquant (l'image reste non compressée): {}", e.getMessage());
-        }
+    public List<SpriteInfos> normalizeAll() {
+        return normalizeAnimations(spriteRepository.findAllSpriteInfos());
     }
 
-    private BufferedImage rebuildFinalSprite(BufferedImage original, int frameCount) {
-        List<BufferedImage> frames = splitByFrameCount(original, frameCount);
-        int[] boundsArr = calculateGlobalBounds(frames);
+    private List<SpriteInfos> normalizeAnimations(List<SpriteInfos> infos) {
+        log.info("Normalisation de {} animations...", infos.size());
+        List<String> previous = infos.stream().map(SpriteInfos::getVersion).toList();
 
-        if (boundsArr == null) {
-            return original;
+        List<CompletableFuture<SpriteInfos>> tasks = new ArrayList<>();
+        for (SpriteInfos info : infos) {
+            tasks.add(CompletableFuture.supplyAsync(() -> normalizeQuietly(info), spriteWorkerPool));
         }
 
-        Bounds bounds = new Bounds(boundsArr);
-        int newWidth = bounds.width();
-        int newHeight = bounds.height();
-        BufferedImage output = new BufferedImage(frameCount * newWidth, newHeight, BufferedImage.TYPE_INT_ARGB);
-
-        int xCursor = 0;
-        for (BufferedImage frame : frames) {
-            for (int x = 0; x < newWidth; x++) {
-                for (int y = 0; y < newHeight; y++) {
-                    int sx = bounds.minX + x;
-                    int sy = bounds.minY + y;
-
-                    if (sx < frame.getWidth() && sy < frame.getHeight()) {
-                        output.setRGB(xCursor + x, y, frame.getRGB(sx, sy));
-                    }
-                }
+        List<SpriteInfos> normalized = new ArrayList<>();
+        for (CompletableFuture<SpriteInfos> task : tasks) {
+            SpriteInfos info = task.join();
+            if (info != null) {
+                normalized.add(info);
             }
-            xCursor += newWidth;
         }
 
-        return output;
-    }
-
-    private List<BufferedImage> splitByFrameCount(BufferedImage img, int frameCount) {
-        int fw = img.getWidth() / frameCount;
-        List<BufferedImage> frames = new ArrayList<>();
-
-        for (int i = 0; i < frameCount; i++) {
-            BufferedImage frame = img.getSubimage(i * fw, 0, fw, img.getHeight());
-            frames.add(frame);
-        }
+        transactionTemplate.executeWithoutResult(status -> {
+            spriteJdbcRepository.updateAnimationSheets(normalized);
+            normalized.stream()
+                    .map(SpriteInfos::getName)
+                    .distinct()
+                    .forEach(name -> eventPublisher.publishEvent(SpriteChangedEvent.of(SpriteChangeType.NORMALIZED, name)));
+            blobCollector.collectOnCommit(previous);
+        });
 
-        return frames;
+        log.info("Normalisation terminée: {}/{} animations", normalized.size(), infos.size());
+        logSeparator();
+        return normalized;
     }
 
-    private int[] calculateGlobalBounds(List<BufferedImage> frames) {
-        int minX = Integer.MAX_VALUE;
-        int maxX = Integer.MIN_VALUE;
-        int minY = Integer.MAX_VALUE;
-        int maxY = Integer.MIN_VALUE;
-        boolean hasContent = false;
-
-        for (BufferedImage frame : frames) {
-            int[] b = computeContentBounds(frame);
-            if (b != null) {
-                hasContent = true;
-                minX = Math.min(minX, b[0]);
-                maxX = Math.max(maxX, b[1]);
-                minY = Math.min(minY, b[2]);
-                maxY = Math.max(maxY, b[3]);
-            }
+    private SpriteInfos normalizeQuietly(SpriteInfos info) {
+        try {
+            return normalizeFile(info);
+        } catch (IOException | RuntimeException e) {
+            log.error("Normalisation impossible {}: {}", info.getImageUrl(), e.getMessage(), e);
+            return null;
         }
-
-        return hasContent ? new int[]{minX, maxX, minY, maxY} : null;
     }
 
-    private int[] computeContentBounds(BufferedImage img) {
-        int w = img.getWidth();
-        int h = img.getHeight();
+    private SpriteInfos normalizeFile(SpriteInfos info) throws IOException {
+        BufferedImage original = readSheet(info);
+        BufferedImage normalized = spriteSheetNormalizer.normalize(original, info.getFrames());
 
-        int minX = w;
-        int maxX = 0;
-        int minY = h;
-        int maxY = 0;
-        boolean hasPixels = false;
-
-        for (int x = 0; x < w; x++) {
-            for (int y = 0; y < h; y++) {
-                int alpha = (img.getRGB(x, y) >>> 24) & 0xff;
-                if (alpha > ALPHA_THRESHOLD) {
-                    minX = Math.min(minX, x);
-                    maxX = Math.max(maxX, x);
-                    minY = Math.min(minY, y);
-                    maxY = Math.max(maxY, y);
-                    hasPixels = true;
-                }
-            }
-        }
-
-        return hasPixels ? new int[]{minX, maxX, minY, maxY} : null;
+        info.setWidth(normalized.getWidth());
+        info.setHeight(normalized.getHeight());
+        info.setVersion(spriteStorage.put(pngQuantizer.encode(normalized)));
+        return info;
     }
 
-    public ResponseEntity<Resource> getSprite(HttpServletRequest request) throws IOException {
-        String relative = request.getRequestURI().replace("/api/sprite/sprite-storage/", "");
-        Path filePath = Paths.get(spriteStorage, relative);
+    private BufferedImage readSheet(SpriteInfos info) throws IOException {
+        Path filePath = spriteStorage.fetch(info.getVersion());
+        BufferedImage img = filePath != null ? ImageIO.read(filePath.toFile()) : null;
 
-        if (Files.exists(filePath) && !Files.isDirectory(filePath)) {
-            Resource resource = new UrlResource(filePath.toUri());
-            String type = Files.probeContentType(filePath);
-
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(type != null ? type : "application/octet-stream"))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filePath.getFileName() + "\"")
-                    .body(resource);
+        if (img == null) {
+            throw new IOException("Impossible de lire l'image: " + info.getImageUrl());
         }
-
-        return ResponseEntity.notFound().build();
+        return img;
     }
 
     public List<SpriteInfos> findAllSpriteInfosByAnimationType() {
-        return spriteRepository.findAllSpriteInfosByAnimationType(AnimationType.IDLE);
+        return catalog.findAllIdle();
     }
 
     public List<SpriteInfos> findAllAnimationsBySpriteName(String name) {
-        return spriteRepository.findAllAnimationsBySpriteName(name);
+        return catalog.findAnimations(name);
     }
 
     @Transactional
     public void deleteSpriteByName(String name) {
         log.info("Suppression du sprite '{}'", name);
-        spriteRepository.deleteByName(name);
+        List<String> hashes = spriteRepository.findAllAnimationsBySpriteName(name).stream()
+                .map(SpriteInfos::getVersion)
+                .toList();
 
-        try {
-            FileSystemUtils.deleteRecursively(storageRoot.resolve(name));
-        } catch (IOException ignored) {
-        }
+        spriteRepository.deleteByName(name);
+        eventPublisher.publishEvent(SpriteChangedEvent.of(SpriteChangeType.DELETED, name));
+        blobCollector.collectOnCommit(hashes);
 
         logSeparator();
     }
@@ -605,43 +499,25 @@ public class SpriteService {
         Sprite sprite = spriteRepository.findByName(dto.getOldName()).orElseThrow();
 
         if (!sprite.getName().equals(dto.getNewName())) {
-            renameSpriteFolder(sprite, dto.getNewName());
+            eventPublisher.publishEvent(SpriteChangedEvent.renamed(sprite.getName(), dto.getNewName()));
+            sprite.setName(dto.getNewName());
         }
 
         if (!Objects.equals(sprite.getScale(), dto.getScale())) {
             sprite.setScale(dto.getScale());
+            eventPublisher.publishEvent(SpriteChangedEvent.of(SpriteChangeType.METADATA, sprite.getName()));
         }
 
         spriteRepository.save(sprite);
         return spriteRepository.findSpriteInfosByTypeAndName(AnimationType.IDLE, sprite.getName());
     }
 
-    private void renameSpriteFolder(Sprite sprite, String newName) {
-        Path oldPath = storageRoot.resolve(sprite.getName());
-        Path newPath = storageRoot.resolve(newName);
-        sprite.setName(newName);
-
-        try {
-            if (Files.exists(oldPath)) {
-                Files.move(
-                        oldPath,
-                        newPath,
-                        StandardCopyOption.REPLACE_EXISTING,
-                        StandardCopyOption.ATOMIC_MOVE
-                );
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Erreur renommage sprite", e);
-        }
-    }
-
     @Transactional
-    public void flipHorizontal(Long animationId) {
+    public SpriteInfos flipHorizontal(Long animationId) {
         SpriteInfos info = spriteRepository.findSpriteInfosByAnimationId(animationId);
-        Path filePath = Paths.get(spriteStorage, info.getImageUrl());
 
         try {
-            BufferedImage original = ImageIO.read(filePath.toFile());
+            BufferedImage original = readSheet(info);
             BufferedImage flipped = new BufferedImage(
                     original.getWidth(),
                     original.getHeight(),
@@ -667,10 +543,20 @@ public class SpriteService {
             }
 
             g2d.dispose();
-            ImageIO.write(flipped, "png", filePath.toFile());
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(flipped, "png", out);
+
+            Animation anim = animationRepository.findById(animationId).orElseThrow();
+            anim.setContentHash(spriteStorage.put(out.toByteArray()));
+            animationRepository.save(anim);
+            eventPublisher.publishEvent(SpriteChangedEvent.of(SpriteChangeType.FLIPPED, info.getName(), animationId));
+            blobCollector.collectOnCommit(List.of(info.getVersion()));
         } catch (IOException e) {
             throw new RuntimeException("Erreur flip sprite", e);
         }
+
+        return spriteRepository.findSpriteInfosByAnimationId(animationId);
     }
 
     private void logSeparator() {
@@ -680,7 +566,9 @@ public class SpriteService {
     public Animation saveFrameRate(Long animationId, int frameRate) {
         Animation anim = animationRepository.findById(animationId).orElseThrow();
         anim.setFrameRate(frameRate);
-        return animationRepository.save(anim);
+        Animation saved = animationRepository.save(anim);
+        eventPublisher.publishEvent(SpriteChangedEvent.of(SpriteChangeType.METADATA, saved.getSprite().getName(), animationId));
+        return saved;
     }
 
     @Transactional
@@ -694,6 +582,7 @@ public class SpriteService {
         animation.setHitboxHeight(hitboxDto.getHeight());
 
         animationRepository.save(animation);
+        eventPublisher.publishEvent(SpriteChangedEvent.of(SpriteChangeType.METADATA, animation.getSprite().getName(), animationId));
         log.info("Hitbox saved for animation {}: {}x{} at ({}, {})",
                 animationId, hitboxDto.getWidth(), hitboxDto.getHeight(),
                 hitboxDto.getX(), hitboxDto.getY());
@@ -710,20 +599,13 @@ public class SpriteService {
         animation.setHitboxHeight(null);
 
         animationRepository.save(animation);
+        eventPublisher.publishEvent(SpriteChangedEvent.of(SpriteChangeType.METADATA, animation.getSprite().getName(), animationId));
         log.info("Hitbox deleted for animation {}", animationId);
     }
 
-    private record Bounds(int minX, int maxX, int minY, int maxY) {
-        Bounds(int[] arr) {
-            this(arr[0], arr[1], arr[2], arr[3]);
-        }
-
-        int width() {
-            return maxX - minX + 1;
-        }
-
-        int height() {
-            return maxY - minY + 1;
-        }
+    private record SheetTask(AnimationType type,
+                             int indice,
+                             String contentHash,
+                             CompletableFuture<SpriteSheetAnalysis> analysis) {
     }
 }
@@ -0,0 +1,113 @@
+package dow.service;
+
+import dow.model.SpriteChangedEvent;
+import dow.model.dto.SpriteInfos;
+import dow.model.enumeration.SpriteChangeType;
+import dow.repository.SpriteJdbcRepository;
+import dow.repository.SpriteRepository;
+import dow.storage.SpriteStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Déplace au démarrage les feuilles de l'ancien stockage (&lt;root&gt;/&lt;sprite&gt;/&lt;TYPE&gt;/&lt;indice&gt;.png)
+ * vers le stockage par contenu, et complète animation.content_hash au passage.
+ */
+@Service
+public class SpriteStorageMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(SpriteStorageMigration.class);
+
+    private final SpriteRepository spriteRepository;
+    private final SpriteJdbcRepository spriteJdbcRepository;
+    private final SpriteStorage spriteStorage;
+    private final ExecutorService spriteWorkerPool;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path storageRoot;
+
+    public SpriteStorageMigration(SpriteRepository spriteRepository,
+                                  SpriteJdbcRepository spriteJdbcRepository,
+                                  SpriteStorage spriteStorage,
+                                  @Qualifier("spriteWorkerPool") ExecutorService spriteWorkerPool,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${sprite.storage.root}") String storageRoot) {
+        this.spriteRepository = spriteRepository;
+        this.spriteJdbcRepository = spriteJdbcRepository;
+        this.spriteStorage = spriteStorage;
+        this.spriteWorkerPool = spriteWorkerPool;
+        this.eventPublisher = eventPublisher;
+        this.storageRoot = Paths.get(storageRoot).toAbsolutePath().normalize();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        spriteWorkerPool.execute(this::migrate);
+    }
+
+    private void migrate() {
+        int migrated = 0;
+        Set<String> changed = new LinkedHashSet<>();
+
+        for (SpriteInfos info : spriteRepository.findAllSpriteInfos()) {
+            Path legacy = storageRoot.resolve(info.getImageUrl()).normalize();
+            if (!legacy.startsWith(storageRoot) || !Files.isRegularFile(legacy)) {
+                continue;
+            }
+
+            try {
+                String hash = spriteStorage.put(legacy);
+                if (!hash.equals(info.getVersion())) {
+                    spriteJdbcRepository.updateContentHash(info.getAnimationId(), hash);
+                    changed.add(info.getName());
+                }
+
+                Files.delete(legacy);
+                deleteEmptyParents(legacy.getParent());
+                migrated++;
+            } catch (IOException e) {
+                log.warn("Migration impossible de {}: {}", info.getImageUrl(), e.getMessage());
+            }
+        }
+
+        try {
+            FileSystemUtils.deleteRecursively(storageRoot.resolve(".staging"));
+        } catch (IOException e) {
+            log.warn("Nettoyage impossible de .staging: {}", e.getMessage());
+        }
+
+        for (String name : changed) {
+            eventPublisher.publishEvent(SpriteChangedEvent.of(SpriteChangeType.NORMALIZED, name));
+        }
+
+        if (migrated > 0) {
+            log.info("{} feuilles migrées vers le stockage par contenu", migrated);
+        }
+    }
+
+    private void deleteEmptyParents(Path dir) throws IOException {
+        while (dir != null && dir.startsWith(storageRoot) && !dir.equals(storageRoot)) {
+            try {
+                Files.delete(dir);
+            } catch (DirectoryNotEmptyException e) {
+                return;
+            }
+            dir = dir.getParent();
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package dow.service;
+
+import dow.image.ArgbPixels;
+import dow.image.MipLevels;
+import dow.image.PngQuantizer;
+import dow.model.SpriteChangedEvent;
+import dow.model.dto.SpriteInfos;
+import dow.repository.SpriteRepository;
+import dow.storage.SpriteStorage;
+import dow.storage.StorageFiles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.FileSystemUtils;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Variantes des feuilles construites en tâche de fond : WebP sans perte (si un writer ImageIO "webp" est
+ * présent) et niveaux de mip pour les sprites affichés en dessous de l'échelle 1. Les fichiers sont rangés
+ * sous .variants/&lt;sprite&gt;/&lt;TYPE&gt;/&lt;indice&gt;/ et nommés par le hash de la feuille source.
+ */
+@Service
+public class SpriteVariantService {
+
+    private static final Logger log = LoggerFactory.getLogger(SpriteVariantService.class);
+
+    private final SpriteRepository spriteRepository;
+    private final PngQuantizer pngQuantizer;
+    private final ExecutorService spriteWorkerPool;
+    private final SpriteStorage spriteStorage;
+    private final Path variantRoot;
+    private final int maxMipLevel;
+    private final boolean webpEnabled;
+    private final Map<String, CompletableFuture<Void>> pending = new ConcurrentHashMap<>();
+
+    public SpriteVariantService(SpriteRepository spriteRepository,
+                                PngQuantizer pngQuantizer,
+                                @Qualifier("spriteWorkerPool") ExecutorService spriteWorkerPool,
+                                SpriteStorage spriteStorage,
+                                @Value("${sprite.storage.root}") String storageRoot,
+                                @Value("${sprite.variants.max-mip-level:3}") int maxMipLevel,
+                                @Value("${sprite.variants.webp:true}") boolean webp) {
+        this.spriteRepository = spriteRepository;
+        this.pngQuantizer = pngQuantizer;
+        this.spriteWorkerPool = spriteWorkerPool;
+        this.spriteStorage = spriteStorage;
+        this.variantRoot = Paths.get(storageRoot).toAbsolutePath().normalize().resolve(".variants");
+        this.maxMipLevel = maxMipLevel;
+        this.webpEnabled = webp && ImageIO.getImageWritersByMIMEType("image/webp").hasNext();
+
+        if (webp && !webpEnabled) {
+            log.info("Aucun writer ImageIO WebP disponible: variantes WebP désactivées");
+        }
+    }
+
+    /**
+     * Chemin d'une variante pour une feuille "nom/TYPE/indice.png". level = 0 pour la pleine résolution.
+     */
+    public Path variantPath(String relative, String version, int level, boolean webp) {
+        String base = relative.endsWith(".png") ? relative.substring(0, relative.length() - 4) : relative;
+        String name = version + (level > 0 ? "@" + level : "") + (webp ? ".webp" : ".png");
+        return variantRoot.resolve(base).resolve(name);
+    }
+
+    public boolean isWebpEnabled() {
+        return webpEnabled;
+    }
+
+    public void rebuildAll() {
+        for (String name : spriteRepository.findAllNames()) {
+            submit(name, () -> rebuild(name));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSpriteChanged(SpriteChangedEvent event) {
+        switch (event.type()) {
+            case DELETED -> submit(event.spriteName(), () -> delete(event.spriteName()));
+            case RENAMED -> {
+                submit(event.previousName(), () -> delete(event.previousName()));
+                submit(event.spriteName(), () -> rebuild(event.spriteName()));
+            }
+            default -> submit(event.spriteName(), () -> rebuild(event.spriteName()));
+        }
+    }
+
+    private void submit(String spriteName, VariantTask task) {
+        CompletableFuture<Void> next = pending.compute(spriteName, (key, previous) ->
+                (previous != null ? previous : CompletableFuture.<Void>completedFuture(null))
+                        .handleAsync((result, error) -> {
+                            try {
+                                task.run();
+                            } catch (IOException | RuntimeException e) {
+                                log.error("Variantes de '{}' impossibles: {}", key, e.getMessage(), e);
+                            }
+                            return null;
+                        }, spriteWorkerPool));
+        next.whenComplete((result, error) -> pending.remove(spriteName, next));
+    }
+
+    private void rebuild(String spriteName) throws IOException {
+        for (SpriteInfos info : spriteRepository.findAllAnimationsBySpriteName(spriteName)) {
+            rebuildSheet(info);
+        }
+    }
+
+    private void rebuildSheet(SpriteInfos info) throws IOException {
+        Path source = spriteStorage.fetch(info.getVersion());
+        if (source == null || info.getFrames() <= 0) {
+            return;
+        }
+
+        String version = info.getVersion();
+        int levels = MipLevels.levelFor(info.getScale(), maxMipLevel);
+
+        List<Path> expected = new ArrayList<>();
+        if (webpEnabled) {
+            expected.add(variantPath(info.getImageUrl(), version, 0, true));
+        }
+        for (int level = 1; level <= levels; level++) {
+            expected.add(variantPath(info.getImageUrl(), version, level, false));
+            if (webpEnabled) {
+                expected.add(variantPath(info.getImageUrl(), version, level, true));
+            }
+        }
+
+        Path dir = variantPath(info.getImageUrl(), version, 0, false).getParent();
+        if (!expected.stream().allMatch(Files::exists)) {
+            Files.createDirectories(dir);
+            writeVariants(source, info, version, levels);
+            log.debug("Variantes reconstruites: {} ({} niveaux)", info.getImageUrl(), levels);
+        }
+
+        removeStale(dir, expected);
+    }
+
+    private void writeVariants(Path source, SpriteInfos info, String version, int levels) throws IOException {
+        BufferedImage img = ImageIO.read(source.toFile());
+        if (img == null) {
+            return;
+        }
+
+        if (webpEnabled) {
+            StorageFiles.writeAtomically(variantPath(info.getImageUrl(), version, 0, true), encodeWebp(img));
+        }
+
+        ArgbPixels level = ArgbPixels.of(img);
+        for (int i = 1; i <= levels; i++) {
+            level = MipLevels.halve(level, info.getFrames());
+            BufferedImage mip = level.toImage();
+            StorageFiles.writeAtomically(variantPath(info.getImageUrl(), version, i, false), pngQuantizer.encode(mip));
+            if (webpEnabled) {
+                StorageFiles.writeAtomically(variantPath(info.getImageUrl(), version, i, true), encodeWebp(mip));
+            }
+        }
+    }
+
+    private static byte[] encodeWebp(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByMIMEType("image/webp").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+
+        if (param.canWriteCompressed()) {
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            for (String type : param.getCompressionTypes()) {
+                if (type.toLowerCase(Locale.ROOT).contains("lossless")) {
+                    param.setCompressionType(type);
+                    break;
+                }
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static void removeStale(Path dir, List<Path> expected) throws IOException {
+        if (Files.notExists(dir)) {
+            return;
+        }
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                if (!expected.contains(file)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private void delete(String spriteName) throws IOException {
+        Path dir = variantRoot.resolve(spriteName).normalize();
+        if (dir.getParent().equals(variantRoot)) {
+            FileSystemUtils.deleteRecursively(dir);
+        }
+    }
+
+    @FunctionalInterface
+    private interface VariantTask {
+        void run() throws IOException;
+    }
+}
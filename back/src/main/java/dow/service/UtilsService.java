@@ -1,5 +1,6 @@
 package dow.service;
 
+import dow.model.CustomUserDetails;
 import dow.model.entities.Player;
 import dow.repository.PlayerRepository;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
@@ -17,6 +18,10 @@ public class UtilsService {
     }
 
     public String getPseudo() {
+        return authentication().getName();
+    }
+
+    private Authentication authentication() {
         Authentication authentication =
                 SecurityContextHolder.getContext().getAuthentication();
 
@@ -26,7 +31,7 @@ public class UtilsService {
             throw new IllegalStateException("Utilisateur non authentifié");
         }
 
-        return authentication.getName();
+        return authentication;
     }
 
 
@@ -35,4 +40,14 @@ public class UtilsService {
         return playerRepository.findByPseudo(pseudo)
                 .orElseThrow(() -> new RuntimeException("Joueur non trouvé : " + pseudo));
     }
-}
\ No newline at end of file
+
+    /**
+     * Joueur déjà chargé par l'authentification, sans nouvelle requête ; repli sur getPlayer() sinon.
+     */
+    public Player getCurrentPlayer() {
+        if (authentication().getPrincipal() instanceof CustomUserDetails details) {
+            return details.getPlayer();
+        }
+        return getPlayer();
+    }
+}
@@ -0,0 +1,117 @@
+package dow.storage;
+
+import dow.image.ContentHash;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Blobs rangés sous &lt;sprite.storage.root&gt;/blobs/&lt;2 premiers caractères&gt;/&lt;hash&gt;.png.
+ */
+@Component
+@ConditionalOnProperty(name = "sprite.storage.type", havingValue = "filesystem", matchIfMissing = true)
+public class FileSystemSpriteStorage implements SpriteStorage {
+
+    private static final Logger log = LoggerFactory.getLogger(FileSystemSpriteStorage.class);
+    private static final String EXTENSION = ".png";
+
+    private final Path blobRoot;
+
+    public FileSystemSpriteStorage(@Value("${sprite.storage.root}") String storageRoot) throws IOException {
+        this.blobRoot = Paths.get(storageRoot).toAbsolutePath().normalize().resolve("blobs");
+        Files.createDirectories(blobRoot);
+        log.debug("Stockage des blobs: {}", blobRoot);
+    }
+
+    @Override
+    public String put(byte[] data) throws IOException {
+        String hash = ContentHash.sha256(data);
+        Path path = path(hash);
+
+        if (Files.exists(path)) {
+            Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+            return hash;
+        }
+
+        Files.createDirectories(path.getParent());
+        StorageFiles.writeAtomically(path, data);
+        return hash;
+    }
+
+    @Override
+    public String put(Path file) throws IOException {
+        String hash = ContentHash.sha256(file);
+        Path path = path(hash);
+
+        if (Files.exists(path)) {
+            Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+            return hash;
+        }
+
+        Files.createDirectories(path.getParent());
+        StorageFiles.copyAtomically(file, path);
+        return hash;
+    }
+
+    @Override
+    public Path fetch(String hash) {
+        if (hash == null) {
+            return null;
+        }
+        Path path = path(hash);
+        return Files.exists(path) ? path : null;
+    }
+
+    @Override
+    public Instant lastModified(String hash) throws IOException {
+        try {
+            return Files.getLastModifiedTime(path(hash)).toInstant();
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void delete(String hash) throws IOException {
+        Files.deleteIfExists(path(hash));
+    }
+
+    @Override
+    public List<StoredBlob> list() throws IOException {
+        List<StoredBlob> blobs = new ArrayList<>();
+
+        try (Stream<Path> files = Files.walk(blobRoot, 2)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(EXTENSION) && Files.isRegularFile(file)) {
+                    blobs.add(new StoredBlob(
+                            name.substring(0, name.length() - EXTENSION.length()),
+                            Files.getLastModifiedTime(file).toInstant()
+                    ));
+                }
+            }
+        }
+
+        return blobs;
+    }
+
+    private Path path(String hash) {
+        if (hash.length() < 3 || !hash.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+            throw new IllegalArgumentException("Hash invalide: " + hash);
+        }
+        return blobRoot.resolve(hash.substring(0, 2)).resolve(hash + EXTENSION);
+    }
+}
@@ -0,0 +1,299 @@
+package dow.storage;
+
+import dow.image.ContentHash;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.MetadataDirective;
+import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Blobs stockés dans un bucket S3 (ou compatible : MinIO, Garage...) sous &lt;prefix&gt;&lt;ab&gt;/&lt;hash&gt;.png.
+ * Les lectures passent par un cache disque local sous &lt;sprite.storage.root&gt;/blobs, borné en taille :
+ * un blob étant immuable, une copie locale n'est jamais périmée.
+ */
+@Component
+@ConditionalOnProperty(name = "sprite.storage.type", havingValue = "s3")
+public class S3SpriteStorage implements SpriteStorage {
+
+    private static final Logger log = LoggerFactory.getLogger(S3SpriteStorage.class);
+    private static final String EXTENSION = ".png";
+
+    private final S3Client s3;
+    private final String bucket;
+    private final String prefix;
+    private final Path cacheRoot;
+    private final long cacheMaxBytes;
+    private final AtomicLong cachedBytes = new AtomicLong();
+
+    public S3SpriteStorage(@Value("${sprite.storage.s3.bucket}") String bucket,
+                           @Value("${sprite.storage.s3.prefix:blobs/}") String prefix,
+                           @Value("${sprite.storage.s3.endpoint:}") String endpoint,
+                           @Value("${sprite.storage.s3.region:us-east-1}") String region,
+                           @Value("${sprite.storage.s3.access-key:}") String accessKey,
+                           @Value("${sprite.storage.s3.secret-key:}") String secretKey,
+                           @Value("${sprite.storage.s3.path-style:false}") boolean pathStyle,
+                           @Value("${sprite.storage.s3.create-bucket:false}") boolean createBucket,
+                           @Value("${sprite.storage.root}") String storageRoot,
+                           @Value("${sprite.storage.s3.cache-max-bytes:1073741824}") long cacheMaxBytes) throws IOException {
+        AwsCredentialsProvider credentials = accessKey.isBlank()
+                ? DefaultCredentialsProvider.create()
+                : StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey));
+
+        var builder = S3Client.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .forcePathStyle(pathStyle);
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+
+        this.s3 = builder.build();
+        this.bucket = bucket;
+        this.prefix = prefix;
+        this.cacheRoot = Paths.get(storageRoot).toAbsolutePath().normalize().resolve("blobs");
+        this.cacheMaxBytes = cacheMaxBytes;
+
+        Files.createDirectories(cacheRoot);
+        initBucket(createBucket);
+        cachedBytes.set(cachedFiles().stream().mapToLong(CachedBlob::size).sum());
+        log.info("Stockage S3: {}/{} (cache local {})", bucket, prefix, cacheRoot);
+    }
+
+    private void initBucket(boolean create) {
+        try {
+            s3.headBucket(b -> b.bucket(bucket));
+        } catch (NoSuchBucketException e) {
+            if (!create) {
+                throw new IllegalStateException("Bucket S3 introuvable: " + bucket, e);
+            }
+            s3.createBucket(b -> b.bucket(bucket));
+            log.info("Bucket S3 créé: {}", bucket);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        s3.close();
+    }
+
+    @Override
+    public String put(byte[] data) throws IOException {
+        String hash = ContentHash.sha256(data);
+
+        if (!touch(hash)) {
+            s3.putObject(b -> b.bucket(bucket).key(key(hash)).contentType("image/png"), RequestBody.fromBytes(data));
+        }
+
+        Path cached = cachePath(hash);
+        if (Files.notExists(cached)) {
+            Files.createDirectories(cached.getParent());
+            StorageFiles.writeAtomically(cached, data);
+            cached(data.length);
+        }
+        return hash;
+    }
+
+    @Override
+    public String put(Path file) throws IOException {
+        String hash = ContentHash.sha256(file);
+
+        if (!touch(hash)) {
+            s3.putObject(b -> b.bucket(bucket).key(key(hash)).contentType("image/png"), RequestBody.fromFile(file));
+        }
+        return hash;
+    }
+
+    @Override
+    public Path fetch(String hash) throws IOException {
+        if (hash == null) {
+            return null;
+        }
+
+        Path cached = cachePath(hash);
+        try {
+            Files.setLastModifiedTime(cached, FileTime.from(Instant.now()));
+            return cached;
+        } catch (NoSuchFileException ignored) {
+        }
+
+        Files.createDirectories(cached.getParent());
+        Path tmp = cached.resolveSibling(".tmp-" + UUID.randomUUID());
+        try {
+            s3.getObject(b -> b.bucket(bucket).key(key(hash)), ResponseTransformer.toFile(tmp));
+            Files.move(tmp, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            cached(Files.size(cached));
+            return cached;
+        } catch (NoSuchKeyException e) {
+            return null;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public Instant lastModified(String hash) {
+        try {
+            return s3.headObject(b -> b.bucket(bucket).key(key(hash))).lastModified();
+        } catch (NoSuchKeyException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void delete(String hash) throws IOException {
+        s3.deleteObject(b -> b.bucket(bucket).key(key(hash)));
+
+        Path cached = cachePath(hash);
+        long size = Files.exists(cached) ? Files.size(cached) : 0;
+        if (Files.deleteIfExists(cached)) {
+            cachedBytes.addAndGet(-size);
+        }
+    }
+
+    @Override
+    public List<StoredBlob> list() {
+        List<StoredBlob> blobs = new ArrayList<>();
+
+        for (S3Object object : s3.listObjectsV2Paginator(b -> b.bucket(bucket).prefix(prefix)).contents()) {
+            String name = object.key().substring(object.key().lastIndexOf('/') + 1);
+            if (name.endsWith(EXTENSION)) {
+                blobs.add(new StoredBlob(name.substring(0, name.length() - EXTENSION.length()), object.lastModified()));
+            }
+        }
+
+        return blobs;
+    }
+
+    /**
+     * Rafraîchit la date de modification d'un objet existant (copie sur lui-même), ce qui le protège de la
+     * collecte comme le fait le stockage fichier. Renvoie false si l'objet n'existe pas.
+     */
+    private boolean touch(String hash) {
+        String key = key(hash);
+        try {
+            s3.copyObject(b -> b
+                    .sourceBucket(bucket)
+                    .sourceKey(key)
+                    .destinationBucket(bucket)
+                    .destinationKey(key)
+                    .contentType("image/png")
+                    .metadataDirective(MetadataDirective.REPLACE));
+            return true;
+        } catch (NoSuchKeyException e) {
+            return false;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private void cached(long size) {
+        if (cachedBytes.addAndGet(size) > cacheMaxBytes) {
+            evict();
+        }
+    }
+
+    /**
+     * Supprime les copies locales les moins récemment lues jusqu'à repasser sous 90 % du budget.
+     */
+    private synchronized void evict() {
+        long target = cacheMaxBytes * 9 / 10;
+        if (cachedBytes.get() <= target) {
+            return;
+        }
+
+        List<CachedBlob> files;
+        try {
+            files = cachedFiles();
+        } catch (IOException e) {
+            log.warn("Lecture du cache S3 impossible: {}", e.getMessage());
+            return;
+        }
+
+        files.sort(Comparator.comparing(CachedBlob::lastAccess));
+        long total = files.stream().mapToLong(CachedBlob::size).sum();
+
+        for (CachedBlob file : files) {
+            if (total <= target) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(file.path());
+                total -= file.size();
+            } catch (IOException e) {
+                log.warn("Suppression impossible de {}: {}", file.path(), e.getMessage());
+            }
+        }
+
+        cachedBytes.set(total);
+    }
+
+    private List<CachedBlob> cachedFiles() throws IOException {
+        List<CachedBlob> files = new ArrayList<>();
+
+        try (Stream<Path> paths = Files.walk(cacheRoot, 2)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (path.getFileName().toString().endsWith(EXTENSION) && Files.isRegularFile(path)) {
+                    try {
+                        files.add(new CachedBlob(path, Files.size(path), Files.getLastModifiedTime(path).toInstant()));
+                    } catch (NoSuchFileException ignored) {
+                    }
+                }
+            }
+        }
+
+        return files;
+    }
+
+    private String key(String hash) {
+        checkHash(hash);
+        return prefix + hash.substring(0, 2) + "/" + hash + EXTENSION;
+    }
+
+    private Path cachePath(String hash) {
+        checkHash(hash);
+        return cacheRoot.resolve(hash.substring(0, 2)).resolve(hash + EXTENSION);
+    }
+
+    private static void checkHash(String hash) {
+        if (hash.length() < 3 || !hash.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+            throw new IllegalArgumentException("Hash invalide: " + hash);
+        }
+    }
+
+    private record CachedBlob(Path path, long size, Instant lastAccess) {
+    }
+}
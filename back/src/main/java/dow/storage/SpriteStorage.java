@@ -0,0 +1,40 @@
+package dow.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Stockage des feuilles de sprite adressé par contenu : un blob est identifié par le SHA-256 de ses octets,
+ * n'est jamais modifié, et peut être partagé par plusieurs animations. Le comptage des références se fait
+ * en base (animation.content_hash), voir SpriteBlobCollector.
+ */
+public interface SpriteStorage {
+
+    /**
+     * Stocke les octets et renvoie leur hash. Si le blob existe déjà, seule sa date d'usage est rafraîchie
+     * pour le protéger d'une collecte concurrente.
+     */
+    String put(byte[] data) throws IOException;
+
+    /**
+     * Variante de {@link #put(byte[])} qui lit le fichier en flux, sans le charger en mémoire.
+     */
+    String put(Path file) throws IOException;
+
+    /**
+     * Chemin local lisible du blob, ou null s'il n'existe pas. Pour un stockage distant, le blob est d'abord
+     * recopié dans le cache local.
+     */
+    Path fetch(String hash) throws IOException;
+
+    /**
+     * Date de dernière écriture ou réutilisation du blob, null s'il n'existe pas.
+     */
+    Instant lastModified(String hash) throws IOException;
+
+    void delete(String hash) throws IOException;
+
+    List<StoredBlob> list() throws IOException;
+}
@@ -0,0 +1,36 @@
+package dow.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+public final class StorageFiles {
+
+    private StorageFiles() {
+    }
+
+    /**
+     * Écrit dans un fichier temporaire du même dossier puis le renomme : un lecteur voit l'ancien contenu
+     * ou le nouveau, jamais un fichier partiel.
+     */
+    public static void writeAtomically(Path target, byte[] data) throws IOException {
+        Path tmp = Files.createTempFile(target.getParent(), ".tmp-", null);
+        try {
+            Files.write(tmp, data);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public static void copyAtomically(Path source, Path target) throws IOException {
+        Path tmp = Files.createTempFile(target.getParent(), ".tmp-", null);
+        try {
+            Files.copy(source, tmp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
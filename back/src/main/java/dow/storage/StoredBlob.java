@@ -0,0 +1,6 @@
+package dow.storage;
+
+import java.time.Instant;
+
+public record StoredBlob(String hash, Instant lastModified) {
+}
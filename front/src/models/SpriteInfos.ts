@@ -12,6 +12,7 @@ export default interface SpriteInfo {
     hitboxY?: number;
     hitboxWidth?: number;
     hitboxHeight?: number;
+    version?: string;
 }
 
 export interface Hitbox {
@@ -1,4 +1,5 @@
 export default interface LoginResponseDto {
     token: string;
+    refreshToken: string;
     pseudo: string;
 }
@@ -0,0 +1,18 @@
+import SpriteInfo from "@/models/SpriteInfos.ts";
+
+export type SpriteImportStage =
+    | "QUEUED"
+    | "UNZIPPED"
+    | "ANALYZED"
+    | "STORED"
+    | "COMMITTED"
+    | "FAILED";
+
+export default interface SpriteImportEvent {
+    jobId: string;
+    stage: SpriteImportStage;
+    done: number;
+    total: number;
+    message?: string;
+    sprite?: SpriteInfo;
+}
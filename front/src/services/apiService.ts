@@ -1,4 +1,5 @@
-import axios from "axios";
+import axios, { InternalAxiosRequestConfig } from "axios";
+import LoginResponseDto from "@/models/dtos/loginResponseDto.ts";
 import { localStore, LocalState } from "@/store/local.ts";
 import router from "@/router";
 import { useToast } from "@/services/toast.ts";
@@ -13,6 +14,29 @@ const apiService = axios.create({
 });
 
 let isTokenExpiredToastShown = false;
+let pendingRefresh: Promise<void> | null = null;
+
+/**
+ * Un seul appel /auth/refresh à la fois, partagé par toutes les requêtes qui ont reçu un 401.
+ * Envoyé sans l'en-tête Authorization, le jeton d'accès étant justement expiré.
+ */
+function refreshTokens(): Promise<void> {
+    if (!pendingRefresh) {
+        pendingRefresh = axios
+            .post<LoginResponseDto>(
+                import.meta.env.VITE_API_BASE_URL + "/auth/refresh",
+                { refreshToken: localStore.refreshToken }
+            )
+            .then((res) => {
+                localStore.token = res.data.token;
+                localStore.refreshToken = res.data.refreshToken;
+            })
+            .finally(() => {
+                pendingRefresh = null;
+            });
+    }
+    return pendingRefresh;
+}
 
 apiService.interceptors.request.use(
     (config) => {
@@ -28,7 +52,7 @@ apiService.interceptors.request.use(
 
 apiService.interceptors.response.use(
     (response) => response,
-    (error) => {
+    async (error) => {
         if (!axios.isAxiosError(error)) {
             showError("Erreur inconnue");
             return Promise.reject(error);
@@ -41,6 +65,25 @@ apiService.interceptors.response.use(
 
         if (error.response) {
             const { status, data } = error.response;
+            const request = error.config as
+                | (InternalAxiosRequestConfig & { retried?: boolean })
+                | undefined;
+
+            if (
+                status === 401 &&
+                data?.error === "INVALID_OR_EXPIRED_TOKEN" &&
+                localStore.refreshToken &&
+                request &&
+                !request.retried
+            ) {
+                request.retried = true;
+                try {
+                    await refreshTokens();
+                    return apiService(request);
+                } catch {
+                    // jeton de rafraîchissement expiré : reconnexion
+                }
+            }
             const message = data?.message || data || "Erreur inconnue";
 
             switch (status) {
@@ -86,6 +129,7 @@ function handleInvalidToken(localstore: LocalState) {
     isTokenExpiredToastShown = true;
     localstore.pseudo = "";
     localstore.token = "";
+    localstore.refreshToken = "";
 
     router.push("/login").catch(() => {});
     showError("Session expirée, veuillez vous reconnecter.");
@@ -1,5 +1,6 @@
 import ConnexionDto from "@/models/dtos/connexionDto.ts";
 import apiService from "@/services/apiService.ts";
+import axios from "axios";
 
 export default {
     async register(connexion: ConnexionDto) {
@@ -9,4 +10,14 @@ export default {
     async login(connexion: ConnexionDto) {
         return await apiService.post("/auth/login", connexion);
     },
+
+    /**
+     * Révoque les jetons côté serveur. Sans en-tête Authorization : le jeton d'accès peut être expiré.
+     */
+    async logout(token: string, refreshToken: string) {
+        return await axios.post(import.meta.env.VITE_API_BASE_URL + "/auth/logout", {
+            token,
+            refreshToken,
+        });
+    },
 };
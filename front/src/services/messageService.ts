@@ -1,8 +1,23 @@
 import apiService from "@/services/apiService.ts";
+import Message from "@/models/message.ts";
+
+interface MessageSlice {
+    content: Message[];
+    size: number;
+    hasNext: boolean;
+}
 
 export default {
-    async loadMessages(page: number, size: number) {
-        return await apiService.get(`/messages/${page}/${size}`);
+    /**
+     * Messages plus anciens que le curseur (timestamp, id) du plus ancien message affiché ; sans curseur,
+     * les derniers messages.
+     */
+    async loadMessagesBefore(size: number, before?: Message) {
+        return await apiService.get<MessageSlice>(`/messages`, {
+            params: before
+                ? { size, before: before.timestamp, beforeId: before.id }
+                : { size },
+        });
     },
 
     async sendMessage(message: string) {
@@ -2,6 +2,7 @@ import apiService from "@/services/apiService";
 import SpriteInfo, { Hitbox } from "@/models/SpriteInfos.ts";
 import ModifSpriteDto from "@/models/dtos/modifSpriteDto.ts";
 import { spriteCache } from "@/services/SpriteCache.ts";
+import SpriteImportEvent from "@/models/dtos/spriteImportEvent.ts";
 
 export default {
     async uploadSprite(formData: FormData) {
@@ -10,6 +11,20 @@ export default {
         });
     },
 
+    async submitImport(formData: FormData) {
+        return await apiService.post<SpriteImportEvent>(
+            "/sprite/import",
+            formData,
+            { headers: { "Content-Type": "multipart/form-data" } }
+        );
+    },
+
+    async getImportJob(jobId: string) {
+        return await apiService.get<SpriteImportEvent>(
+            `/sprite/import/${jobId}`
+        );
+    },
+
     async getAllSpritesInfos() {
         return await apiService.get<SpriteInfo[]>("/sprite/all");
     },
@@ -23,11 +38,23 @@ export default {
         return await apiService.put(`/sprite/rename`, modifSpriteDto);
     },
 
+    /**
+     * Chemin versionné par le hash de contenu : le navigateur peut le garder en cache indéfiniment.
+     */
+    sheetSrc(sprite: SpriteInfo): string {
+        return sprite.version
+            ? `${sprite.imageUrl}?v=${sprite.version}`
+            : sprite.imageUrl;
+    },
+
     async getImage(spritePath: string): Promise<string> {
         return spriteCache.getOrFetch(spritePath, async () => {
             const response = await apiService.get(
                 `/sprite/sprite-storage/${spritePath}`,
-                { responseType: "blob" }
+                {
+                    responseType: "blob",
+                    headers: { Accept: "image/webp,image/png;q=0.9" },
+                }
             );
             return response.data;
         });
@@ -12,9 +12,12 @@ function createClient(): Client {
     return new Client({
         webSocketFactory: () => socket,
         reconnectDelay: 5000,
-        connectHeaders: localStore.token
-            ? { Authorization: `Bearer ${localStore.token}` }
-            : {},
+        // relu à chaque (re)connexion : le jeton d'accès est renouvelé entre-temps
+        beforeConnect: (client) => {
+            client.connectHeaders = localStore.token
+                ? { Authorization: `Bearer ${localStore.token}` }
+                : {};
+        },
     });
 }
 
@@ -25,7 +28,42 @@ export function getStompClient(): Client {
     return stompClient;
 }
 
-export function connexionChat(onMessageReceived: (msg: any) => void): Client {
+export function subscribeTopic(
+    destination: string,
+    onMessage: (body: any) => void
+): () => void {
+    const client = getStompClient();
+    let unsubscribe = () => {};
+
+    const subscribe = () => {
+        const subscription = client.subscribe(destination, (msg: IMessage) =>
+            onMessage(JSON.parse(msg.body))
+        );
+        unsubscribe = () => subscription.unsubscribe();
+    };
+
+    if (client.connected) {
+        subscribe();
+    } else {
+        const previousOnConnect = client.onConnect;
+        client.onConnect = (frame) => {
+            previousOnConnect(frame);
+            subscribe();
+        };
+        if (!client.active) client.activate();
+    }
+
+    return () => unsubscribe();
+}
+
+/**
+ * replay : nombre de messages récents que le serveur renvoie à l'abonnement (et à chaque reconnexion),
+ * à dédoublonner côté appelant.
+ */
+export function connexionChat(
+    onMessageReceived: (msg: any) => void,
+    replay = 0
+): Client {
     const client = getStompClient();
 
     const subscribeToTopic = () => {
@@ -37,6 +75,7 @@ export function connexionChat(onMessageReceived: (msg: any) => void): Client {
             },
             {
                 Authorization: `Bearer ${localStore.token}`,
+                replay: String(replay),
             }
         );
     };
@@ -3,6 +3,7 @@ import { reactive } from "vue";
 export interface LocalState {
     pseudo: string;
     token: string;
+    refreshToken: string;
 }
 
 const storedState = JSON.parse(localStorage.getItem("localState") || "{}");
@@ -10,6 +11,7 @@ const storedState = JSON.parse(localStorage.getItem("localState") || "{}");
 const state = reactive<LocalState>({
     pseudo: storedState.pseudo || "",
     token: storedState.token || "",
+    refreshToken: storedState.refreshToken || "",
 });
 
 export const localStore = new Proxy(state, {